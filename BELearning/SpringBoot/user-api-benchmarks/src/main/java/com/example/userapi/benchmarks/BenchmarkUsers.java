@@ -0,0 +1,39 @@
+package com.example.userapi.benchmarks;
+
+import com.example.userapi.model.Role;
+import com.example.userapi.model.User;
+
+import java.util.Set;
+
+/**
+ * Shared fixtures for the benchmarks.
+ */
+final class BenchmarkUsers {
+
+    private BenchmarkUsers() {
+    }
+
+    static Role role(String name) {
+        Role role = new Role();
+        role.setName(name);
+        return role;
+    }
+
+    /**
+     * Creates a fully populated user, as it would be loaded from the database.
+     *
+     * @param id the ID of the user
+     * @return a user with two roles
+     */
+    static User user(long id) {
+        return User.builder()
+                .id(id)
+                .username("user" + id)
+                .email("user" + id + "@example.com")
+                .password("$2a$10$7EqJtq98hPqEX7fNZaFWoO5sJ0cXc5UhRZsQx0Vbq5h8Q1Xg7tEa6")
+                .firstname("First" + id)
+                .lastname("Last" + id)
+                .roles(Set.of(role("USER"), role("ADMIN")))
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.userapi.benchmarks;
+
+import com.example.userapi.filters.JwtAuthFilter;
+import com.example.userapi.repository.RevokedTokenRepository;
+import com.example.userapi.repository.UserRepository;
+import com.example.userapi.security.JwtKeyRing;
+import com.example.userapi.security.JwtTokenProvider;
+import com.example.userapi.security.TokenRevocationStore;
+import com.example.userapi.security.TokenVersionCache;
+import com.example.userapi.service.AuthServiceImpl;
+import com.example.userapi.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pass of {@link JwtAuthFilter} for an authenticated request.
+ * The repository is mocked and the caches are warm, so the result is the per-request cost
+ * once a token has been seen. A fresh mock request is created per call because the filter
+ * marks the request as already filtered.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JwtAuthFilterBenchmark {
+
+    @Param({"true", "false"})
+    private boolean statelessAuthentication;
+
+    private JwtAuthFilter jwtAuthFilter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setUp() {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findByUsername("user1")).thenReturn(Optional.of(BenchmarkUsers.user(1L)));
+        Mockito.when(userRepository.findTokenVersionByUsername("user1")).thenReturn(Optional.of(0));
+
+        JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(new JwtKeyRing("", "", ""), 3_600_000L, 10_000L);
+        AuthServiceImpl authService = new AuthServiceImpl(userRepository, null, null, jwtTokenProvider, null, null, null);
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService(
+                userRepository, 10_000L, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        TokenVersionCache tokenVersionCache = new TokenVersionCache(userRepository, 10_000L, Duration.ofMinutes(1));
+
+        // an empty revocation list, so every request pays the lookup of a token that was not revoked
+        TokenRevocationStore tokenRevocationStore = new TokenRevocationStore(Mockito.mock(RevokedTokenRepository.class),
+                new SimpleMeterRegistry(), Duration.ofMinutes(1), Duration.ofSeconds(30));
+
+        jwtAuthFilter = new JwtAuthFilter(authService, userDetailsService, tokenVersionCache, tokenRevocationStore,
+                statelessAuthentication, new SimpleMeterRegistry());
+        authorizationHeader = "Bearer " + jwtTokenProvider.generateToken(BenchmarkUsers.user(1L));
+    }
+
+    @Benchmark
+    public Authentication doFilter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/1");
+        request.addHeader("Authorization", authorizationHeader);
+        FilterChain filterChain = new MockFilterChain();
+        try {
+            jwtAuthFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.userapi.benchmarks;
+
+import com.example.userapi.model.User;
+import com.example.userapi.security.JwtKeyRing;
+import com.example.userapi.security.JwtTokenProvider;
+import com.example.userapi.service.AuthServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token minting and verification.
+ * {@code AuthServiceImpl.generateToken} only delegates to {@link JwtTokenProvider#generateToken}, so minting
+ * is measured on the provider. With a cache size of 0 every verification checks the signature again.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    @Param({"10000", "0"})
+    private long cacheMaxSize;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private AuthServiceImpl authService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider(new JwtKeyRing("", "", ""), 3_600_000L, cacheMaxSize);
+        // only token operations are measured, which do not touch the other collaborators
+        authService = new AuthServiceImpl(null, null, null, jwtTokenProvider, null, null, null);
+        user = BenchmarkUsers.user(1L);
+        token = jwtTokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return authService.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return authService.getUsernameFromToken(token);
+    }
+}
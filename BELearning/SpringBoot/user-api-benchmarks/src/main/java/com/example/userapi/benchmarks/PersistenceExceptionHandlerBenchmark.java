@@ -0,0 +1,60 @@
+package com.example.userapi.benchmarks;
+
+import com.example.userapi.exception.ClashingUserException;
+import com.example.userapi.exception.PersistenceExceptionHandler;
+import com.example.userapi.model.User;
+import org.hibernate.exception.ConstraintViolationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of a unique violation to a {@link ClashingUserException}.
+ * A known constraint name resolves the column directly, an unknown one falls back to parsing the error detail.
+ * Logging of the handler is switched off in {@code logback.xml}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PersistenceExceptionHandlerBenchmark {
+
+    @Param({User.USERNAME_CONSTRAINT, "users_username_key"})
+    private String constraintName;
+
+    private DataIntegrityViolationException exception;
+
+    @Setup
+    public void setUp() {
+        SQLException sqlException = new SQLException(
+                "ERROR: duplicate key value violates unique constraint \"" + constraintName + "\"\n"
+                        + "  Detail: Key (username)=(user1) already exists.", "23505");
+        ConstraintViolationException cause = new ConstraintViolationException(
+                "could not execute statement", sqlException, constraintName);
+        exception = new DataIntegrityViolationException("could not execute statement", cause);
+    }
+
+    @Benchmark
+    public ClashingUserException handleConstraintViolationExceptions() {
+        try {
+            PersistenceExceptionHandler.handleConstraintViolationExceptions(exception);
+        } catch (ClashingUserException e) {
+            return e;
+        }
+        throw new IllegalStateException("Expected a ClashingUserException");
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.userapi.benchmarks;
+
+import com.example.userapi.dto.UserResponseDTO;
+import com.example.userapi.dto.UserResponseMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Serialization of a page of users, as returned by {@code GET /api/v1/users}.
+ * The object mapper is configured the same way Spring MVC configures its own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class UserPageSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectWriter objectWriter;
+    private List<UserResponseDTO> page;
+
+    @Setup
+    public void setUp() {
+        objectWriter = Jackson2ObjectMapperBuilder.json().build().writerFor(List.class);
+        page = LongStream.rangeClosed(1, pageSize)
+                .mapToObj(BenchmarkUsers::user)
+                .map(UserResponseMapper::toUserResponseDTO)
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectWriter.writeValueAsBytes(page);
+    }
+}
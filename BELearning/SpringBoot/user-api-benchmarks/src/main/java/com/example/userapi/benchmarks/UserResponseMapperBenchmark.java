@@ -0,0 +1,38 @@
+package com.example.userapi.benchmarks;
+
+import com.example.userapi.dto.UserResponseDTO;
+import com.example.userapi.dto.UserResponseMapper;
+import com.example.userapi.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class UserResponseMapperBenchmark {
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkUsers.user(1L);
+    }
+
+    @Benchmark
+    public UserResponseDTO toUserResponseDTO() {
+        return UserResponseMapper.toUserResponseDTO(user);
+    }
+}
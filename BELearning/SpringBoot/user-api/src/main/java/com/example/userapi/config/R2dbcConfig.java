@@ -0,0 +1,47 @@
+package com.example.userapi.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Connection pool for the reactive read path.
+ * The pool is kept private to this configuration and only the {@link DatabaseClient} is exposed,
+ * because a {@code ConnectionFactory} bean makes Spring Boot back off from creating the JDBC DataSource
+ * that JPA and all write operations depend on.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.r2dbc.enabled", havingValue = "true")
+public class R2dbcConfig implements DisposableBean {
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(@Value("${app.r2dbc.url}") String url,
+                                                 @Value("${app.r2dbc.username}") String username,
+                                                 @Value("${app.r2dbc.password}") String password,
+                                                 @Value("${app.r2dbc.pool.max-size:10}") int maxSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(maxSize)
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.userapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Creates the indexes used by the user search once Hibernate has created or updated the schema.
+ * The script is PostgreSQL specific, so it is skipped on other databases such as the H2 instances used in tests.
+ * A failure, for example because the database user may not create the {@code pg_trgm} extension,
+ * is logged and leaves the search working without index support.
+ * A concurrent index build that failed, e.g. because the instance stopped halfway, leaves an invalid index
+ * behind that {@code IF NOT EXISTS} would keep forever, so invalid search indexes are dropped and rebuilt.
+ * The work runs under an advisory lock, so an index another instance is still building is never mistaken
+ * for a failed one.
+ */
+@Slf4j
+@Component
+public class SearchIndexInitializer {
+
+    private static final String POSTGRESQL = "PostgreSQL";
+    private static final String SCRIPT = "db/postgresql/search-indexes.sql";
+    private static final String LOCK_KEY = "user-search-indexes";
+    private static final String INVALID_INDEXES =
+            "SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+            "WHERE NOT i.indisvalid AND pg_table_is_visible(c.oid) AND c.relname IN " +
+            "('ix_users_username_trgm', 'ix_users_email_trgm', 'ix_users_firstname_trgm', 'ix_users_lastname_trgm')";
+
+    private final DataSource dataSource;
+
+    public SearchIndexInitializer(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            String databaseProduct = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            if (!POSTGRESQL.equals(databaseProduct)) {
+                log.info("Skipping user search indexes on {}", databaseProduct);
+                return;
+            }
+            // the advisory lock belongs to the session, so everything runs on one connection
+            try (Connection connection = dataSource.getConnection()) {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+                Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_lock(hashtext(?))", Boolean.class, LOCK_KEY);
+                if (!Boolean.TRUE.equals(locked)) {
+                    log.info("Another instance is creating the user search indexes");
+                    return;
+                }
+                try {
+                    dropInvalidIndexes(jdbcTemplate);
+                    new ResourceDatabasePopulator(new ClassPathResource(SCRIPT)).populate(connection);
+                } finally {
+                    jdbcTemplate.queryForObject("SELECT pg_advisory_unlock(hashtext(?))", Boolean.class, LOCK_KEY);
+                }
+            }
+            log.info("User search indexes are in place");
+        } catch (MetaDataAccessException | SQLException | RuntimeException e) {
+            log.warn("Could not create the user search indexes, search falls back to table scans", e);
+        }
+    }
+
+    private void dropInvalidIndexes(JdbcTemplate jdbcTemplate) {
+        List<String> invalidIndexes = jdbcTemplate.queryForList(INVALID_INDEXES, String.class);
+        for (String index : invalidIndexes) {
+            log.warn("Dropping the invalid user search index {} left by a failed build, it is rebuilt", index);
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + index);
+        }
+    }
+}
@@ -1,9 +1,18 @@
 package com.example.userapi.config;
 
+import com.example.userapi.filters.AuthRateLimitFilter;
 import com.example.userapi.filters.JwtAuthFilter;
 import com.example.userapi.repository.UserRepository;
+import com.example.userapi.security.BoundedPasswordEncoder;
+import com.example.userapi.security.RateLimiter;
+import com.example.userapi.security.TokenRevocationStore;
+import com.example.userapi.security.TokenVersionCache;
 import com.example.userapi.service.AuthService;
 import com.example.userapi.service.CustomUserDetailsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
@@ -13,13 +22,13 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
@@ -28,18 +37,47 @@ import java.util.List;
 public class SecurityConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(@Value("${app.password-hashing.pool-size:0}") int poolSize,
+                                                  @Value("${app.password-hashing.queue-capacity:100}") int queueCapacity,
+                                                  @Value("${app.password-hashing.batch-concurrency:0}") int batchConcurrency,
+                                                  @Value("${app.password-hashing.max-wait:PT2S}") Duration maxWait,
+                                                  MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        // by default batches get half of the threads, so sign-ins keep the other half
+        int batchSlots = batchConcurrency > 0 ? batchConcurrency : Math.max(threads / 2, 1);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, queueCapacity, batchSlots, maxWait,
+                meterRegistry);
     }
 
     @Bean
-    public UserDetailsService userDetailsService(UserRepository userRepository) {
-        return new CustomUserDetailsService(userRepository);
+    public UserDetailsService userDetailsService(UserRepository userRepository,
+                                                 @Value("${app.auth.user-details-cache.max-size:10000}") long cacheMaxSize,
+                                                 @Value("${app.auth.user-details-cache.ttl:PT5M}") Duration cacheTtl,
+                                                 MeterRegistry meterRegistry) {
+        return new CustomUserDetailsService(userRepository, cacheMaxSize, cacheTtl, meterRegistry);
     }
 
     @Bean
-    public JwtAuthFilter jwtAuthFilter(AuthService authService, UserDetailsService userDetailsService) {
-        return new JwtAuthFilter(authService, (CustomUserDetailsService) userDetailsService);
+    public JwtAuthFilter jwtAuthFilter(AuthService authService, UserDetailsService userDetailsService,
+                                       TokenVersionCache tokenVersionCache, TokenRevocationStore tokenRevocationStore,
+                                       @Value("${app.auth.stateless:false}") boolean statelessAuthentication,
+                                       MeterRegistry meterRegistry) {
+        return new JwtAuthFilter(authService, (CustomUserDetailsService) userDetailsService,
+                tokenVersionCache, tokenRevocationStore, statelessAuthentication, meterRegistry);
+    }
+
+    @Bean
+    public AuthRateLimitFilter authRateLimitFilter(@Value("${app.auth.rate-limit.ip.capacity:20}") long ipCapacity,
+                                                   @Value("${app.auth.rate-limit.ip.refill-period:PT1M}") Duration ipRefillPeriod,
+                                                   @Value("${app.auth.rate-limit.username.capacity:5}") long usernameCapacity,
+                                                   @Value("${app.auth.rate-limit.username.refill-period:PT1M}") Duration usernameRefillPeriod,
+                                                   @Value("${app.auth.rate-limit.availability.capacity:30}") long availabilityCapacity,
+                                                   @Value("${app.auth.rate-limit.availability.refill-period:PT1M}") Duration availabilityRefillPeriod,
+                                                   @Value("${app.auth.rate-limit.max-keys:100000}") long maxKeys,
+                                                   ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new AuthRateLimitFilter(new RateLimiter(ipCapacity, ipRefillPeriod, maxKeys),
+                new RateLimiter(usernameCapacity, usernameRefillPeriod, maxKeys),
+                new RateLimiter(availabilityCapacity, availabilityRefillPeriod, maxKeys), objectMapper, meterRegistry);
     }
 
     @Bean
@@ -55,15 +93,20 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthFilter jwtAuthFilter) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthFilter jwtAuthFilter,
+                                                   AuthRateLimitFilter authRateLimitFilter) throws Exception {
         http
                 .cors((cors) -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers("/api/v1/auth/**").permitAll()
+                        // only matches on the management port, the public port does not serve actuator
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(authRateLimitFilter, JwtAuthFilter.class)
                 .httpBasic(Customizer.withDefaults())
                 .formLogin(AbstractHttpConfigurer::disable);
         return http.build();
@@ -0,0 +1,47 @@
+package com.example.userapi.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Moves {@code users_seq} past the highest existing user ID before the application takes requests.
+ * User IDs used to come from an identity column; on a database created back then, {@code ddl-auto=update}
+ * creates the sequence starting at 1 and the first inserts would reuse existing IDs.
+ * With the pooled optimizer the sequence value is the upper end of the last allocated block, so setting it to
+ * {@code max(id)} makes the next block start right after the existing rows. A sequence already ahead is left alone.
+ * Depends on the {@link EntityManagerFactory} so it runs after Hibernate created or updated the schema.
+ */
+@Slf4j
+@Component
+public class UserSequenceInitializer implements InitializingBean {
+
+    private static final String POSTGRESQL = "PostgreSQL";
+    private static final String ALIGN_SEQUENCE =
+            "SELECT setval('users_seq', m) FROM (SELECT max(id) AS m FROM users) ids " +
+            "WHERE m IS NOT NULL AND m >= (SELECT last_value FROM users_seq)";
+
+    private final DataSource dataSource;
+
+    public UserSequenceInitializer(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws MetaDataAccessException {
+        String databaseProduct = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if (!POSTGRESQL.equals(databaseProduct)) {
+            log.info("Skipping the users_seq alignment on {}", databaseProduct);
+            return;
+        }
+        new JdbcTemplate(dataSource).queryForList(ALIGN_SEQUENCE, Long.class)
+                .forEach(value -> log.warn("users_seq was behind the existing user IDs, moved it to {}", value));
+    }
+}
@@ -1,16 +1,22 @@
 package com.example.userapi.controller;
 
 import com.example.userapi.dto.UserDTO;
+import com.example.userapi.dto.auth.AvailabilityResponse;
+import com.example.userapi.dto.auth.RefreshRequest;
+import com.example.userapi.dto.auth.RevokeRequest;
 import com.example.userapi.dto.auth.SignInRequest;
 import com.example.userapi.dto.auth.SignInResponse;
 import com.example.userapi.exception.ClashingUserException;
 import com.example.userapi.exception.UserNotFoundException;
 import com.example.userapi.service.AuthService;
+import com.example.userapi.service.UserAvailabilityService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -18,9 +24,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthService authService;
+    private final UserAvailabilityService userAvailabilityService;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, UserAvailabilityService userAvailabilityService) {
         this.authService = authService;
+        this.userAvailabilityService = userAvailabilityService;
     }
 
     @PostMapping("/signin")
@@ -32,4 +40,26 @@ public class AuthController {
     public ResponseEntity<SignInResponse> register(@Valid @RequestBody UserDTO userToRegister) throws ClashingUserException {
         return ResponseEntity.ok(authService.register(userToRegister));
     }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<SignInResponse> refresh(@Valid @RequestBody RefreshRequest refreshRequest) {
+        return ResponseEntity.ok(authService.refresh(refreshRequest));
+    }
+
+    @PostMapping("/revoke")
+    public ResponseEntity<Void> revoke(@Valid @RequestBody RevokeRequest revokeRequest) {
+        authService.revokeToken(revokeRequest.getToken());
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityResponse> checkAvailability(@RequestParam(required = false) String username,
+                                                                  @RequestParam(required = false) String email) {
+        if (username == null && email == null) {
+            throw new IllegalArgumentException("A username or an email is required");
+        }
+        return ResponseEntity.ok(new AvailabilityResponse(
+                username == null ? null : userAvailabilityService.isUsernameAvailable(username),
+                email == null ? null : userAvailabilityService.isEmailAvailable(email)));
+    }
 }
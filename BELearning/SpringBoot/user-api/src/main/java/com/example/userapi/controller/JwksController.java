@@ -0,0 +1,67 @@
+package com.example.userapi.controller;
+
+import com.example.userapi.security.JwtKeyRing;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigInteger;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the public keys of the ring as a JSON Web Key Set, so other instances and downstream
+ * services can verify RS256 tokens locally. HMAC keys are secret and never published.
+ */
+@RestController
+@Tag(name = "JWKS", description = "Public keys verifying the issued tokens")
+public class JwksController {
+
+    private static final Duration MAX_AGE = Duration.ofMinutes(5);
+
+    private final JwtKeyRing keyRing;
+
+    public JwksController(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    @Operation(summary = "Get the JSON Web Key Set", description = "Lists the RSA public keys tokens may be signed with")
+    public ResponseEntity<Map<String, List<Map<String, String>>>> getJwks() {
+        List<Map<String, String>> keys = keyRing.keys().stream()
+                .filter(key -> key.verificationKey() instanceof RSAPublicKey)
+                .map(key -> toJwk(key.kid(), key.algorithm().getValue(), (RSAPublicKey) key.verificationKey()))
+                .toList();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(MAX_AGE).cachePublic())
+                .body(Map.of("keys", keys));
+    }
+
+    private static Map<String, String> toJwk(String kid, String algorithm, RSAPublicKey publicKey) {
+        return Map.of(
+                "kty", "RSA",
+                "use", "sig",
+                "kid", kid,
+                "alg", algorithm,
+                "n", base64Url(publicKey.getModulus()),
+                "e", base64Url(publicKey.getPublicExponent()));
+    }
+
+    /**
+     * Encodes an unsigned big-endian integer as required by RFC 7518.
+     */
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -2,8 +2,13 @@ package com.example.userapi.controller;
 
 import com.example.userapi.dto.*;
 import com.example.userapi.exception.ClashingUserException;
+import com.example.userapi.exception.PreconditionFailedException;
 import com.example.userapi.exception.UserNotFoundException;
 import com.example.userapi.model.User;
+import com.example.userapi.service.UserBatchService;
+import com.example.userapi.service.UserCountService;
+import com.example.userapi.service.UserExportService;
+import com.example.userapi.service.UserPageCache;
 import com.example.userapi.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,10 +18,15 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.Parameter;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
@@ -26,10 +36,21 @@ import java.util.List;
 @Tag(name = "User API", description = "Operations related to user management")
 public class UserController {
 
+    private static final int MAX_SCROLL_SIZE = 1000;
+
     private final UserService userService;
+    private final UserBatchService userBatchService;
+    private final UserExportService userExportService;
+    private final UserCountService userCountService;
+    private final UserPageCache userPageCache;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserBatchService userBatchService, UserExportService userExportService,
+                          UserCountService userCountService, UserPageCache userPageCache) {
         this.userService = userService;
+        this.userBatchService = userBatchService;
+        this.userExportService = userExportService;
+        this.userCountService = userCountService;
+        this.userPageCache = userPageCache;
     }
 
     @GetMapping
@@ -42,13 +63,113 @@ public class UserController {
             @ApiResponse(responseCode = "500", description = "Unexpected error",
                     content = @Content(mediaType = "application/json"))
     })
-    public ResponseEntity<List<UserResponseDTO>> getUsers(Pageable pageable) {
-        Page<User> userPage = userService.getUsers(pageable);
-        Page<UserResponseDTO> userResponseDTOPage = userPage.map(UserResponseMapper::toUserResponseDTO);
-        if(userResponseDTOPage.isEmpty()) {
+    public ResponseEntity<byte[]> getUsers(Pageable pageable) {
+        byte[] users = userPageCache.getPage(pageable, () -> userService.getUserSummaries(pageable));
+        if(users == UserPageCache.EMPTY_PAGE) {
             return ResponseEntity.noContent().build();
         }
-        return ResponseEntity.ok(userResponseDTOPage.getContent());
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(users);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search users", description = "Finds users whose username, email, first name or last name starts with or contains the given text, ignoring case")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Page of matching users",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDTO.class))),
+            @ApiResponse(responseCode = "422", description = "Search text too short",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "500", description = "Unexpected error",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<List<UserResponseDTO>> searchUsers(
+            @Parameter(description = "Text to search for, at least 3 characters", required = true)
+            @RequestParam("q") String query,
+            @Parameter(description = "PREFIX or CONTAINS")
+            @RequestParam(defaultValue = "PREFIX") UserSearchMode mode,
+            @PageableDefault(sort = "id") Pageable pageable) {
+        return ResponseEntity.ok(userService.searchUsers(query, mode, pageable));
+    }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "Scroll through users", description = "Retrieves users ordered by ID using an opaque cursor. Page latency does not depend on how deep the client scrolls.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Page of users and the cursor of the next page",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserCursorPage.class))),
+            @ApiResponse(responseCode = "422", description = "Invalid cursor",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "500", description = "Unexpected error",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<UserCursorPage> scrollUsers(
+            @Parameter(description = "Cursor returned with the previous page, omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of users to return")
+            @RequestParam(defaultValue = "20") int size) {
+        int pageSize = Math.clamp(size, 1, MAX_SCROLL_SIZE);
+        // fetch one extra row to know whether there is a next page without counting
+        List<User> users = userService.getUsersAfter(UserCursor.decode(cursor), pageSize + 1);
+        boolean hasNext = users.size() > pageSize;
+        List<User> pageUsers = hasNext ? users.subList(0, pageSize) : users;
+        String nextCursor = hasNext ? UserCursor.encode(pageUsers.get(pageSize - 1).getId()) : null;
+        List<UserResponseDTO> items = pageUsers.stream().map(UserResponseMapper::toUserResponseDTO).toList();
+        return ResponseEntity.ok(new UserCursorPage(items, nextCursor));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all users", description = "Streams every user as newline-delimited JSON")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "One JSON user per line",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = UserResponseDTO.class))),
+            @ApiResponse(responseCode = "500", description = "Unexpected error",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userExportService::exportUsers);
+    }
+
+    @PreAuthorize("#mode != T(com.example.userapi.dto.UserCountMode).EXACT or hasRole('ADMIN')")
+    @GetMapping("/count")
+    @Operation(summary = "Count users", description = "Returns the number of users. MAINTAINED and ESTIMATED are served from memory, EXACT counts the table and is restricted to admins.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Number of users and the mode that produced it",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserCountDTO.class))),
+            @ApiResponse(responseCode = "403", description = "EXACT requested without the admin role",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<UserCountDTO> countUsers(
+            @Parameter(description = "MAINTAINED, ESTIMATED or EXACT")
+            @RequestParam(defaultValue = "MAINTAINED") UserCountMode mode) {
+        return ResponseEntity.ok(userCountService.countUsers(mode));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get a user by ID", description = "Retrieves a single user with its version as a strong ETag. A matching If-None-Match is answered with 304 without loading the user.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "User found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDTO.class))),
+            @ApiResponse(responseCode = "304", description = "User not modified since the given ETag"),
+            @ApiResponse(responseCode = "404", description = "User not found",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<UserResponseDTO> getUserById(
+            @Parameter(description = "ID of the user", required = true)
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws UserNotFoundException {
+        if (ifNoneMatch != null) {
+            long currentVersion = userService.getUserVersion(id)
+                    .orElseThrow(() -> new UserNotFoundException("User with ID: " + id + " not found."));
+            if (eTagMatches(ifNoneMatch, eTag(currentVersion), true)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag(currentVersion)).build();
+            }
+        }
+        User user = userService.getUserById(id)
+                .orElseThrow(() -> new UserNotFoundException("User with ID: " + id + " not found."));
+        return ResponseEntity.ok()
+                .eTag(eTag(user.getVersion()))
+                .body(UserResponseMapper.toUserResponseDTO(user));
     }
 
     @PostMapping
@@ -71,6 +192,22 @@ public class UserController {
         return ResponseEntity.status(201).body(createdUserResponse);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/batch")
+    @Operation(summary = "Create users in bulk", description = "Adds many users at once. Every item is validated and checked for clashes on its own, so failing items do not fail the batch. "
+            + "Items reported as UNAVAILABLE were not inserted because password hashing was overloaded and can be resubmitted.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "One result per submitted user, in the same order",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = BatchUserResult.class))),
+            @ApiResponse(responseCode = "422", description = "Batch exceeds the maximum size",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "500", description = "Unexpected error",
+                    content = @Content(mediaType = "application/json"))
+    })
+    public ResponseEntity<List<BatchUserResult>> createUsers(@RequestBody List<UserDTO> userRequests) {
+        return ResponseEntity.ok(userBatchService.addUsers(userRequests));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update an existing user", description = "Updates the details of an existing user by ID. Username and email must remain unique.")
     @ApiResponses({
@@ -82,6 +219,8 @@ public class UserController {
                     content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "409", description = "Username or email already exists",
                     content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "412", description = "User modified since the ETag given in If-Match",
+                    content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "422", description = "Missing required fields",
                     content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "500", description = "Unexpected error",
@@ -90,10 +229,11 @@ public class UserController {
     public ResponseEntity<UserResponseDTO> updateUser(
             @Parameter(description = "ID of the user to update", required = true)
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UserDTO userRequest) throws ClashingUserException, UserNotFoundException {
-        User updatedUser = userService.updateUser(userRequest, id);
+        User updatedUser = userService.updateUser(userRequest, id, expectedVersion(id, ifMatch));
         UserResponseDTO updatedUserResponse = UserResponseMapper.toUserResponseDTO(updatedUser);
-        return ResponseEntity.ok(updatedUserResponse);
+        return ResponseEntity.ok().eTag(eTag(updatedUser.getVersion())).body(updatedUserResponse);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -122,6 +262,8 @@ public class UserController {
                     content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "409", description = "Username or email already exists",
                     content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "412", description = "User modified since the ETag given in If-Match",
+                    content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "422", description = "Missing required fields",
                     content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "500", description = "Unexpected error",
@@ -130,12 +272,63 @@ public class UserController {
     public ResponseEntity<UserResponseDTO> patchUser(
             @Parameter(description = "ID of the user to patch", required = true)
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody PatchUserDTO patchUserDTO) throws ClashingUserException, UserNotFoundException {
 
         //UserPatchValidator.validatePatch(patchUserDTO);
 
-        User patchedUser = userService.patchUser(id, patchUserDTO);
+        User patchedUser = userService.patchUser(id, patchUserDTO, expectedVersion(id, ifMatch));
         UserResponseDTO patchedUserResponse = UserResponseMapper.toUserResponseDTO(patchedUser);
-        return ResponseEntity.ok(patchedUserResponse);
+        return ResponseEntity.ok().eTag(eTag(patchedUser.getVersion())).body(patchedUserResponse);
+    }
+
+    /**
+     * Resolves an {@code If-Match} header to the version the write is conditional on.
+     *
+     * @param id the ID of the user to write
+     * @param ifMatch the header value, may be null
+     * @return the current version if one of the given ETags matches it, or null for an unconditional write
+     * @throws UserNotFoundException if the user does not exist
+     * @throws PreconditionFailedException if none of the given ETags matches the current version
+     */
+    private Long expectedVersion(Long id, String ifMatch) throws UserNotFoundException {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        long currentVersion = userService.getUserVersion(id)
+                .orElseThrow(() -> new UserNotFoundException("User with ID: " + id + " not found."));
+        if (!eTagMatches(ifMatch, eTag(currentVersion), false)) {
+            throw new PreconditionFailedException("User with ID: " + id + " has been modified.");
+        }
+        return currentVersion;
+    }
+
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Compares a conditional request header with the current ETag.
+     * {@code If-None-Match} uses the weak comparison, {@code If-Match} the strong one.
+     *
+     * @param header the comma separated list of ETags, or {@code *}
+     * @param eTag the current ETag
+     * @param weak whether weak ETags may match
+     * @return true if the header matches the current ETag
+     */
+    private static boolean eTagMatches(String header, String eTag, boolean weak) {
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (weak && tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
\ No newline at end of file
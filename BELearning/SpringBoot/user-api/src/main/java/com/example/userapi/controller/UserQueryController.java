@@ -0,0 +1,81 @@
+package com.example.userapi.controller;
+
+import com.example.userapi.dto.UserCursor;
+import com.example.userapi.dto.UserResponseDTO;
+import com.example.userapi.service.UserQueryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/v1/query/users")
+@ConditionalOnProperty(name = "app.r2dbc.enabled", havingValue = "true")
+@Tag(name = "User Query API", description = "Non-blocking read-only user lookups")
+public class UserQueryController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final UserQueryService userQueryService;
+
+    public UserQueryController(UserQueryService userQueryService) {
+        this.userQueryService = userQueryService;
+    }
+
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get a user by ID", description = "Retrieves a single user without blocking a request thread")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "User found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDTO.class))),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    public Mono<ResponseEntity<UserResponseDTO>> getUserById(
+            @Parameter(description = "ID of the user", required = true)
+            @PathVariable Long id) {
+        return userQueryService.getUserById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/by-username/{username}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get a user by username", description = "Retrieves a single user without blocking a request thread")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "User found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDTO.class))),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    public Mono<ResponseEntity<UserResponseDTO>> getUserByUsername(
+            @Parameter(description = "Username of the user", required = true)
+            @PathVariable String username) {
+        return userQueryService.getUserByUsername(username)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "List users", description = "Streams users ordered by ID as newline-delimited JSON, continuing after the given cursor")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "One JSON user per line"),
+            @ApiResponse(responseCode = "422", description = "Invalid cursor")
+    })
+    public Flux<UserResponseDTO> getUsers(
+            @Parameter(description = "Cursor of the last user of the previous page, omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of users to return")
+            @RequestParam(defaultValue = "20") int size) {
+        return userQueryService.getUsersAfter(UserCursor.decode(cursor), Math.clamp(size, 1, MAX_PAGE_SIZE));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.userapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BatchUserResult {
+
+    private int index;
+    private BatchUserStatus status;
+    private UserResponseDTO user;
+    private String message;
+
+    public static BatchUserResult created(int index, UserResponseDTO user) {
+        return new BatchUserResult(index, BatchUserStatus.CREATED, user, null);
+    }
+
+    public static BatchUserResult conflict(int index, String message) {
+        return new BatchUserResult(index, BatchUserStatus.CONFLICT, null, message);
+    }
+
+    public static BatchUserResult invalid(int index, String message) {
+        return new BatchUserResult(index, BatchUserStatus.INVALID, null, message);
+    }
+
+    public static BatchUserResult unavailable(int index, String message) {
+        return new BatchUserResult(index, BatchUserStatus.UNAVAILABLE, null, message);
+    }
+}
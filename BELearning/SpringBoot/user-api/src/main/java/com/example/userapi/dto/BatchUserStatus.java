@@ -0,0 +1,9 @@
+package com.example.userapi.dto;
+
+public enum BatchUserStatus {
+    CREATED,
+    CONFLICT,
+    INVALID,
+    // password hashing was overloaded, the item was not inserted and can be resubmitted
+    UNAVAILABLE
+}
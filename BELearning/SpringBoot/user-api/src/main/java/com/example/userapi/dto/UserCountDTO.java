@@ -0,0 +1,14 @@
+package com.example.userapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UserCountDTO {
+    private long count;
+    /**
+     * The mode that produced the count, which differs from the requested one when the estimate is not available.
+     */
+    private UserCountMode mode;
+}
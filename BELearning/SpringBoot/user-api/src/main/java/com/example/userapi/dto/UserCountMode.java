@@ -0,0 +1,19 @@
+package com.example.userapi.dto;
+
+/**
+ * How the number of users is determined.
+ */
+public enum UserCountMode {
+    /**
+     * In-memory counter updated on every committed create and delete, no query per call.
+     */
+    MAINTAINED,
+    /**
+     * Row estimate from the PostgreSQL planner statistics, refreshed periodically.
+     */
+    ESTIMATED,
+    /**
+     * {@code COUNT} over the whole users table.
+     */
+    EXACT
+}
@@ -0,0 +1,40 @@
+package com.example.userapi.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque continuation tokens of keyset pagination.
+ * The token only wraps the ID of the last returned user, clients must not rely on its format.
+ */
+public class UserCursor {
+
+    private static final String PREFIX = "id:";
+
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a continuation token.
+     *
+     * @param cursor the token returned with the previous page, may be null or empty for the first page
+     * @return the ID of the last user of the previous page, or {@code null} for the first page
+     * @throws IllegalArgumentException if the token is not a valid cursor
+     */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return Long.parseLong(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
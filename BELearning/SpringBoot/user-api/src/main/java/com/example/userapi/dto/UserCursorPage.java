@@ -0,0 +1,16 @@
+package com.example.userapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class UserCursorPage {
+    private List<UserResponseDTO> items;
+    /**
+     * Opaque token to pass as {@code cursor} to fetch the next page, {@code null} on the last page.
+     */
+    private String nextCursor;
+}
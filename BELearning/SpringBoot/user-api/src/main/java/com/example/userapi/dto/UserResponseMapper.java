@@ -2,7 +2,9 @@ package com.example.userapi.dto;
 
 import com.example.userapi.model.User;
 import com.example.userapi.model.Role;
+import com.example.userapi.repository.projection.UserSummary;
 
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class UserResponseMapper {
@@ -23,4 +25,21 @@ public class UserResponseMapper {
 
         return userResponseDTO;
     }
+
+    public static UserResponseDTO toUserResponseDTO(UserSummary userSummary, Set<String> roleNames) {
+        if (userSummary == null) {
+            return null;
+        }
+
+        UserResponseDTO userResponseDTO = new UserResponseDTO();
+        userResponseDTO.setId(userSummary.getId());
+        userResponseDTO.setUsername(userSummary.getUsername());
+        userResponseDTO.setEmail(userSummary.getEmail());
+        userResponseDTO.setPassword(userSummary.getPassword());
+        userResponseDTO.setFirstname(userSummary.getFirstname());
+        userResponseDTO.setLastname(userSummary.getLastname());
+        userResponseDTO.setRoles(roleNames);
+
+        return userResponseDTO;
+    }
 }
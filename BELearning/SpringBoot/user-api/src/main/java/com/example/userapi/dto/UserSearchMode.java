@@ -0,0 +1,15 @@
+package com.example.userapi.dto;
+
+/**
+ * How the search text is matched against the username, email, first name and last name.
+ */
+public enum UserSearchMode {
+    /**
+     * The field starts with the search text.
+     */
+    PREFIX,
+    /**
+     * The field contains the search text anywhere.
+     */
+    CONTAINS
+}
@@ -0,0 +1,19 @@
+package com.example.userapi.dto.auth;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvailabilityResponse {
+    /**
+     * Whether the username is free, {@code null} if no username was asked for.
+     */
+    private Boolean usernameAvailable;
+    /**
+     * Whether the email is free, {@code null} if no email was asked for.
+     */
+    private Boolean emailAvailable;
+}
@@ -0,0 +1,10 @@
+package com.example.userapi.dto.auth;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RefreshRequest {
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+}
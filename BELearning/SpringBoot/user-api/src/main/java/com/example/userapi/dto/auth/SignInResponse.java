@@ -9,4 +9,5 @@ import java.util.List;
 public class SignInResponse {
     private String token;
     private List<String> roles;
+    private String refreshToken;
 }
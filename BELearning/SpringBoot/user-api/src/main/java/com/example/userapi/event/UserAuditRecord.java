@@ -0,0 +1,25 @@
+package com.example.userapi.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One line of the audit log.
+ * Records may be written more than once after a failed write, consumers deduplicate them by {@code id}.
+ *
+ * @param id the unique id of the record
+ * @param timestamp when the change was committed
+ * @param actor the authenticated user who made the change, or {@code anonymous} for self-registration
+ * @param action the kind of change
+ * @param userId the ID of the changed user
+ * @param username the username after the change
+ * @param previousUsername the username before the change, or {@code null} for created users
+ */
+public record UserAuditRecord(UUID id,
+                              Instant timestamp,
+                              String actor,
+                              UserChangeType action,
+                              Long userId,
+                              String username,
+                              String previousUsername) {
+}
@@ -0,0 +1,8 @@
+package com.example.userapi.event;
+
+public enum UserChangeType {
+    CREATED,
+    UPDATED,
+    PATCHED,
+    DELETED
+}
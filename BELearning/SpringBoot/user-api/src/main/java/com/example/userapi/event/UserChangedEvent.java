@@ -0,0 +1,20 @@
+package com.example.userapi.event;
+
+/**
+ * Published after a user has been written to the repository.
+ * In-memory views of the users table (caches, indexes) listen to it to stay consistent with the database.
+ *
+ * @param type the kind of write that happened
+ * @param userId the ID of the affected user
+ * @param previousUsername the username before the write, or {@code null} for created users
+ * @param username the username after the write
+ * @param email the email after the write
+ * @param tokenVersion the token version after the write
+ */
+public record UserChangedEvent(UserChangeType type,
+                               Long userId,
+                               String previousUsername,
+                               String username,
+                               String email,
+                               int tokenVersion) {
+}
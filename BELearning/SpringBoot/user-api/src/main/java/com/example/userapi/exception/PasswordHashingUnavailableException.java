@@ -0,0 +1,10 @@
+package com.example.userapi.exception;
+
+public class PasswordHashingUnavailableException extends RuntimeException {
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+    public PasswordHashingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
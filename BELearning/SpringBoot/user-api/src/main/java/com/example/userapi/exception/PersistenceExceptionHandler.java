@@ -1,16 +1,21 @@
 package com.example.userapi.exception;
 
+import com.example.userapi.model.User;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
 
 import java.sql.SQLException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Slf4j
 public class PersistenceExceptionHandler {
 
     private static final String NOT_NULL_VIOLATION_SQL_STATE = "23502";
     private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+    // PostgreSQL reports the clashing column as: Key (username)=(john) already exists.
+    private static final Pattern DUPLICATE_KEY_DETAIL = Pattern.compile("Key \\((\\w+)\\)=\\((.*?)\\)");
 
     /**
      * Function that handles DataIntegrityViolationException and its cause ConstraintViolationException.
@@ -35,7 +40,7 @@ public class PersistenceExceptionHandler {
 
             if (sqlState.equals(UNIQUE_VIOLATION_SQL_STATE)) {
 
-                handleUniqueConstraintViolation(sqlException);
+                handleUniqueConstraintViolation(constraintName, sqlException);
             }
             else if (sqlState.equals(NOT_NULL_VIOLATION_SQL_STATE)) {
 
@@ -51,12 +56,36 @@ public class PersistenceExceptionHandler {
 
     /**
      * Handles unique constraint violations by throwing a ClashingUserException.
+     * The clashing column is taken from the constraint name, or from the error detail when the
+     * constraint was created under a different name, so callers can rely on the insert itself
+     * instead of checking for existing usernames and emails first.
      *
+     * @param constraintName the name of the violated constraint, may be null
      * @param e the SQLException that caused the unique constraint violation
      * @throws ClashingUserException with a message indicating the violation
      */
-    private static void handleUniqueConstraintViolation(SQLException e) throws ClashingUserException {
-        String message = "A unique constraint was violated: " + e.getMessage();
+    private static void handleUniqueConstraintViolation(String constraintName, SQLException e) throws ClashingUserException {
+        String column = null;
+        String value = null;
+        Matcher matcher = DUPLICATE_KEY_DETAIL.matcher(String.valueOf(e.getMessage()));
+        if (matcher.find()) {
+            column = matcher.group(1);
+            value = matcher.group(2);
+        }
+        if (User.USERNAME_CONSTRAINT.equalsIgnoreCase(constraintName)) {
+            column = "username";
+        } else if (User.EMAIL_CONSTRAINT.equalsIgnoreCase(constraintName)) {
+            column = "email";
+        }
+
+        String message;
+        if ("username".equals(column)) {
+            message = "Username already exists" + (value != null ? ": " + value : "");
+        } else if ("email".equals(column)) {
+            message = "Email already exists" + (value != null ? ": " + value : "");
+        } else {
+            message = "A unique constraint was violated: " + e.getMessage();
+        }
         throw new ClashingUserException(message, e);
     }
 
@@ -0,0 +1,218 @@
+package com.example.userapi.filters;
+
+import com.example.userapi.security.RateLimiter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limits sign-in and registration before they reach the password encoder.
+ * Every request takes a token from the bucket of its IP address and, when the JSON body names one,
+ * from the bucket of the username, so neither a single client nor a distributed attack on one account
+ * can keep the BCrypt pool busy. The availability check answers whether a username or an email is taken,
+ * so it is limited per IP address as well, to keep it from being used to enumerate accounts.
+ * A rejected request is answered with 429 and {@code Retry-After} without being parsed any further.
+ */
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> LIMITED_PATHS = Set.of("/api/v1/auth/signin", "/api/v1/auth/register");
+    private static final String AVAILABILITY_PATH = "/api/v1/auth/availability";
+    // sign-in and registration bodies are tiny, anything larger is rejected instead of buffered
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    private final RateLimiter ipRateLimiter;
+    private final RateLimiter usernameRateLimiter;
+    private final RateLimiter availabilityRateLimiter;
+    private final ObjectMapper objectMapper;
+    private final Counter allowed;
+    private final Counter ipRejected;
+    private final Counter usernameRejected;
+    private final Counter availabilityRejected;
+
+    public AuthRateLimitFilter(RateLimiter ipRateLimiter, RateLimiter usernameRateLimiter,
+                               RateLimiter availabilityRateLimiter, ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        this.ipRateLimiter = ipRateLimiter;
+        this.usernameRateLimiter = usernameRateLimiter;
+        this.availabilityRateLimiter = availabilityRateLimiter;
+        this.objectMapper = objectMapper;
+        this.allowed = decisionCounter(meterRegistry, "none", "allowed");
+        this.ipRejected = decisionCounter(meterRegistry, "ip", "rejected");
+        this.usernameRejected = decisionCounter(meterRegistry, "username", "rejected");
+        this.availabilityRejected = decisionCounter(meterRegistry, "availability", "rejected");
+        bucketGauge(meterRegistry, "ip", ipRateLimiter);
+        bucketGauge(meterRegistry, "username", usernameRateLimiter);
+        bucketGauge(meterRegistry, "availability", availabilityRateLimiter);
+    }
+
+    private static Counter decisionCounter(MeterRegistry meterRegistry, String limit, String outcome) {
+        return Counter.builder("auth.rate.limit.requests")
+                .description("Rate limited authentication requests by the limit that rejected them")
+                .tag("limit", limit)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static void bucketGauge(MeterRegistry meterRegistry, String limit, RateLimiter rateLimiter) {
+        Gauge.builder("auth.rate.limit.buckets", rateLimiter, RateLimiter::size)
+                .description("Clients currently tracked by the rate limiter")
+                .tag("limit", limit)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        if ("GET".equals(request.getMethod())) {
+            return !AVAILABILITY_PATH.equals(request.getServletPath());
+        }
+        return !"POST".equals(request.getMethod()) || !LIMITED_PATHS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (AVAILABILITY_PATH.equals(request.getServletPath())) {
+            long waitNanos = availabilityRateLimiter.tryAcquire(request.getRemoteAddr());
+            if (waitNanos > 0) {
+                availabilityRejected.increment();
+                reject(response, waitNanos);
+                return;
+            }
+            allowed.increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = ipRateLimiter.tryAcquire(request.getRemoteAddr());
+        if (waitNanos > 0) {
+            ipRejected.increment();
+            reject(response, waitNanos);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+        String username = getUsername(body);
+        if (username != null) {
+            waitNanos = usernameRateLimiter.tryAcquire(username.toLowerCase(Locale.ROOT));
+            if (waitNanos > 0) {
+                usernameRejected.increment();
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        allowed.increment();
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    /**
+     * @return the username field of the JSON body, or null if there is none; the controller reports malformed bodies
+     */
+    private String getUsername(byte[] body) {
+        try {
+            JsonNode username = objectMapper.readTree(body).path("username");
+            return username.isTextual() ? username.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1), 1);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many authentication attempts, retry in " + retryAfterSeconds + " seconds.");
+    }
+
+    /**
+     * Replays the body read by the filter to the rest of the chain.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(@NonNull byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // the filter has read the original stream blocking, as the servlet spec requires outside async mode
+                    throw new IllegalStateException("The request body has already been read, non-blocking reads are not supported");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -1,29 +1,66 @@
 package com.example.userapi.filters;
 
+import com.example.userapi.security.TokenRevocationStore;
+import com.example.userapi.security.TokenVersionCache;
 import com.example.userapi.service.AuthService;
 import com.example.userapi.service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final AuthService authService;
     private final CustomUserDetailsService customUserDetailsService;
+    private final TokenVersionCache tokenVersionCache;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final boolean statelessAuthentication;
+    private final Timer validTokenTimer;
+    private final Timer invalidTokenTimer;
+    private final Timer userLoadingTimer;
 
-    public JwtAuthFilter(AuthService authService, CustomUserDetailsService customUserDetailsService) {
+    public JwtAuthFilter(AuthService authService, CustomUserDetailsService customUserDetailsService,
+                         TokenVersionCache tokenVersionCache, TokenRevocationStore tokenRevocationStore,
+                         boolean statelessAuthentication, MeterRegistry meterRegistry) {
         this.authService = authService;
         this.customUserDetailsService = customUserDetailsService;
+        this.tokenVersionCache = tokenVersionCache;
+        this.tokenRevocationStore = tokenRevocationStore;
+        this.statelessAuthentication = statelessAuthentication;
+        this.validTokenTimer = verificationTimer("valid", meterRegistry);
+        this.invalidTokenTimer = verificationTimer("invalid", meterRegistry);
+        this.userLoadingTimer = Timer.builder("auth.filter.user.loading")
+                .description("Time spent building the principal of an authenticated request")
+                .tag("mode", statelessAuthentication ? "stateless" : "user_details")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer verificationTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("auth.filter.token.verification")
+                .description("Time spent verifying the bearer token of a request")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     @Override
@@ -32,10 +69,15 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
         String jwt = getJwtFromRequest(request);
 
-        if (StringUtils.hasText(jwt) && authService.validateToken(jwt)) {
+        Optional<Claims> claims = StringUtils.hasText(jwt) ? verifyToken(jwt) : Optional.empty();
+
+        if (claims.isPresent()) {
 
-            String username = authService.getUsernameFromToken(jwt);
-            UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+            long start = System.nanoTime();
+            UserDetails userDetails = statelessAuthentication
+                    ? getUserDetailsFromClaims(claims.get())
+                    : customUserDetailsService.loadUserByUsername(claims.get().getSubject());
+            userLoadingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
             UsernamePasswordAuthenticationToken authToken =
                     new UsernamePasswordAuthenticationToken(
@@ -48,6 +90,50 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Verifies the token, that it was not revoked and, in stateless mode, its version, recording the time taken by outcome.
+     *
+     * @param jwt the bearer token of the request
+     * @return the verified claims, or empty if the token must not be used
+     */
+    private Optional<Claims> verifyToken(String jwt) {
+        long start = System.nanoTime();
+        Optional<Claims> claims = authService.verifyToken(jwt)
+                .filter(verified -> !tokenRevocationStore.isRevoked(verified.getId(), verified.getExpiration()))
+                .filter(this::isTokenVersionCurrent);
+        (claims.isPresent() ? validTokenTimer : invalidTokenTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return claims;
+    }
+
+    /**
+     * In stateless mode the user is not loaded from the database, so the token version is
+     * checked instead to reject tokens of deleted users or issued before a credential or role change.
+     *
+     * @param claims the verified claims of the token
+     * @return true if the token may be used to authenticate the request
+     */
+    private boolean isTokenVersionCurrent(Claims claims) {
+        if (!statelessAuthentication) {
+            return true;
+        }
+        Integer tokenVersion = claims.get("ver", Integer.class);
+        return tokenVersionCache.isCurrent(claims.getSubject(), tokenVersion == null ? 0 : tokenVersion);
+    }
+
+    /**
+     * Builds the principal and its authorities from the roles claim of a verified token.
+     *
+     * @param claims the verified claims of the token
+     * @return the user details of the token subject
+     */
+    private UserDetails getUserDetailsFromClaims(Claims claims) {
+        List<?> roles = claims.get("roles", List.class);
+        List<SimpleGrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                .collect(Collectors.toList());
+        return new User(claims.getSubject(), "", authorities);
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -0,0 +1,59 @@
+package com.example.userapi.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+/**
+ * A refresh token, stored as the SHA-256 of its value.
+ * Every refresh replaces the token with a new one of the same family; presenting a token that was
+ * already used means it leaked, so the whole family is revoked.
+ */
+@Entity
+@Table(name = "refresh_tokens",
+        uniqueConstraints = @UniqueConstraint(name = "uk_refresh_tokens_hash", columnNames = "token_hash"),
+        indexes = @Index(name = "ix_refresh_tokens_family", columnList = "family"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(exclude = "user")
+@ToString(exclude = "user")
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_seq")
+    @SequenceGenerator(name = "refresh_tokens_seq", sequenceName = "refresh_tokens_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false)
+    private String tokenHash;
+
+    /**
+     * Shared by the tokens descending from the same sign-in.
+     */
+    @Column(nullable = false)
+    private String family;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    /**
+     * The token version of the user when the token was issued, a credential or role change invalidates the token.
+     */
+    @Column(nullable = false)
+    private int tokenVersion;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * Set when the token is exchanged, a used token is never accepted again.
+     */
+    private Instant usedAt;
+}
@@ -0,0 +1,32 @@
+package com.example.userapi.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * An access token revoked before its expiry, identified by its {@code jti} claim.
+ * Kept until the token expires; instances load the rows at startup and poll for new ones by revocation time.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "ix_revoked_tokens_revoked_at", columnList = "revoked_at"),
+        @Index(name = "ix_revoked_tokens_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+
+    @Id
+    private String jti;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+}
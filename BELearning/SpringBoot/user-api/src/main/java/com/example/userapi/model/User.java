@@ -5,25 +5,35 @@ import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"),
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class User {
+
+    public static final String USERNAME_CONSTRAINT = "uk_users_username";
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     @NotBlank(message = "Username is required")
     private String username;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     @NotBlank(message = "Email is required")
     @Email(message = "Email should be valid")
     private String email;
@@ -35,6 +45,23 @@ public class User {
     private String firstname;
     private String lastname;
 
+    /**
+     * Incremented whenever the username, password or roles change,
+     * so tokens issued before the change are no longer accepted.
+     */
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int tokenVersion;
+
+    /**
+     * Incremented by Hibernate on every update, including role changes.
+     * Exposed as the ETag of the user and checked against {@code If-Match}.
+     */
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long version;
+
     @JsonManagedReference
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
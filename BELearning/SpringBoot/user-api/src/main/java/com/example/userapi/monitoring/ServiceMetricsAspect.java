@@ -0,0 +1,92 @@
+package com.example.userapi.monitoring;
+
+import com.example.userapi.exception.ClashingUserException;
+import com.example.userapi.exception.InvalidCredentialsException;
+import com.example.userapi.exception.PasswordHashingUnavailableException;
+import com.example.userapi.exception.UserNotFoundException;
+import com.example.userapi.service.AuthService;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call of {@code UserService} and {@code AuthService}.
+ * Calls are recorded in the {@code service.operations} timer, tagged with the service, the method and the outcome,
+ * so the count of the timer doubles as the throughput per outcome. Percentile histograms are published
+ * to let p99 be aggregated across instances.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    private static final String USER_SERVICE = "UserService";
+    private static final String AUTH_SERVICE = "AuthService";
+
+    private static final String OUTCOME_OK = "ok";
+    private static final String OUTCOME_NOT_FOUND = "not_found";
+    private static final String OUTCOME_CONFLICT = "conflict";
+    private static final String OUTCOME_INVALID_CREDENTIALS = "invalid_credentials";
+    private static final String OUTCOME_INVALID_TOKEN = "invalid_token";
+    private static final String OUTCOME_INVALID = "invalid";
+    private static final String OUTCOME_UNAVAILABLE = "unavailable";
+    private static final String OUTCOME_ERROR = "error";
+
+    private final Meter.MeterProvider<Timer> operationTimers;
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.operationTimers = Timer.builder("service.operations")
+                .description("Latency of UserService and AuthService calls")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+    }
+
+    @Around("execution(public * com.example.userapi.service.UserService+.*(..)) " +
+            "|| execution(public * com.example.userapi.service.AuthService+.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String service = joinPoint.getTarget() instanceof AuthService ? AUTH_SERVICE : USER_SERVICE;
+        String method = joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
+        try {
+            Object result = joinPoint.proceed();
+            outcome = outcomeOf(service, result);
+            return result;
+        } catch (Throwable e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            operationTimers.withTags("service", service, "method", method, "outcome", outcome)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * An empty lookup is reported as not found, and a rejected token as invalid,
+     * since neither is signalled by an exception.
+     */
+    private static String outcomeOf(String service, Object result) {
+        boolean empty = (result instanceof Optional<?> optional && optional.isEmpty()) || Boolean.FALSE.equals(result);
+        if (!empty) {
+            return OUTCOME_OK;
+        }
+        return AUTH_SERVICE.equals(service) ? OUTCOME_INVALID_TOKEN : OUTCOME_NOT_FOUND;
+    }
+
+    private static String outcomeOf(Throwable e) {
+        return switch (e) {
+            case UserNotFoundException ignored -> OUTCOME_NOT_FOUND;
+            case ClashingUserException ignored -> OUTCOME_CONFLICT;
+            case InvalidCredentialsException ignored -> OUTCOME_INVALID_CREDENTIALS;
+            case PasswordHashingUnavailableException ignored -> OUTCOME_UNAVAILABLE;
+            case IllegalArgumentException ignored -> OUTCOME_INVALID;
+            default -> OUTCOME_ERROR;
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.userapi.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, for example while blocking inside
+ * native code or a class initializer. A pinned virtual thread blocks a carrier, so frequent pinning
+ * quietly brings back the platform thread ceiling that virtual threads are meant to remove.
+ * Pinning events are read from JFR, logged with the top of their stack and counted.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Duration threshold;
+    private final Counter pinnedCounter;
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(@Value("${app.virtual-threads.pinning-threshold:PT0.02S}") Duration threshold,
+                                       MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.pinnedCounter = Counter.builder("jvm.threads.virtual.pinned.events")
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::report);
+        recordingStream.startAsync();
+        log.info("Monitoring virtual thread pinning longer than {}", threshold);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+            recordingStream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    private void report(RecordedEvent event) {
+        pinnedCounter.increment();
+        String stack = event.getStackTrace() == null ? "<no stack trace>" : event.getStackTrace().getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(VirtualThreadPinningMonitor::formatFrame)
+                .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+        log.warn("Virtual thread pinned for {} ms{}", event.getDuration().toMillis(), stack);
+    }
+
+    private static String formatFrame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.userapi.repository;
+
+import com.example.userapi.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Finds a token together with its user.
+     */
+    @Query("SELECT t FROM RefreshToken t JOIN FETCH t.user WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Marks the token as used unless another request already did.
+     *
+     * @return 1 if this call used the token, 0 if it had been used before
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.usedAt = :usedAt WHERE t.id = :id AND t.usedAt IS NULL")
+    int markUsed(@Param("id") Long id, @Param("usedAt") Instant usedAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.family = :family")
+    int deleteByFamily(@Param("family") String family);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,20 +1,104 @@
 package com.example.userapi.repository;
 
 import com.example.userapi.model.User;
+import com.example.userapi.repository.projection.UserIdentifiers;
+import com.example.userapi.repository.projection.UserRoleName;
+import com.example.userapi.repository.projection.UserSummary;
+import jakarta.persistence.QueryHint;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Optional<User> findByUsername(String username);
 
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Loads a page of users as read-only projections.
+     * Returning a list instead of a page skips the count query.
+     */
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.password AS password, " +
+            "u.firstname AS firstname, u.lastname AS lastname FROM User u")
+    List<UserSummary> findSummaries(Pageable pageable);
+
+    /**
+     * Finds users with a username, email, first name or last name matching a lower-case LIKE pattern.
+     * Backed by trigram indexes on the lower-cased columns on PostgreSQL, see {@code db/postgresql/search-indexes.sql}.
+     * Returning a list instead of a page skips the count query.
+     */
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.password AS password, " +
+            "u.firstname AS firstname, u.lastname AS lastname FROM User u " +
+            "WHERE lower(u.username) LIKE :pattern ESCAPE '\\' " +
+            "OR lower(u.email) LIKE :pattern ESCAPE '\\' " +
+            "OR lower(u.firstname) LIKE :pattern ESCAPE '\\' " +
+            "OR lower(u.lastname) LIKE :pattern ESCAPE '\\'")
+    List<UserSummary> searchSummaries(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query("SELECT u.id AS userId, r.name AS roleName FROM User u JOIN u.roles r WHERE u.id IN :userIds")
+    List<UserRoleName> findRoleNamesByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Streams every user with its roles, ordered by ID.
+     * Rows are fetched from the database in chunks of the fetch size, so the stream must be consumed
+     * inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles ORDER BY u.id")
+    Stream<User> streamAll();
+
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Streams the username and email of every user, for building in-memory indexes.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.username AS username, u.email AS email FROM User u")
+    Stream<UserIdentifiers> streamIdentifiers();
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.username = :username")
+    Optional<Integer> findTokenVersionByUsername(@Param("username") String username);
+
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     @Query("SELECT COUNT(u) FROM User u")
     long countUsers();
 
+    /**
+     * Reads the row estimate PostgreSQL keeps for the users table, without scanning it.
+     * The estimate is -1 until the table has been vacuumed or analyzed for the first time.
+     */
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = CAST('users' AS regclass)", nativeQuery = true)
+    Optional<Long> estimateUserCount();
+
+    @Query("SELECT u FROM User u")
+    List<User> findPage(Pageable pageable);
+
     boolean existsByUsername(@NotBlank(message = "Username is required") String username);
 
     boolean existsByEmail(@NotBlank(message = "Email is required") @Email(message = "Email should be valid") String email);
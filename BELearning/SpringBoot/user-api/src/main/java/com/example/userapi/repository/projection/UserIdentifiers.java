@@ -0,0 +1,9 @@
+package com.example.userapi.repository.projection;
+
+/**
+ * The unique identifiers of a user besides its ID.
+ */
+public interface UserIdentifiers {
+    String getUsername();
+    String getEmail();
+}
@@ -0,0 +1,9 @@
+package com.example.userapi.repository.projection;
+
+/**
+ * One row of the user to role association.
+ */
+public interface UserRoleName {
+    Long getUserId();
+    String getRoleName();
+}
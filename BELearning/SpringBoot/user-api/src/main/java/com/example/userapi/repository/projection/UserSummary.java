@@ -0,0 +1,13 @@
+package com.example.userapi.repository.projection;
+
+/**
+ * Read-only view of the scalar columns of a user, loaded without hydrating the entity.
+ */
+public interface UserSummary {
+    Long getId();
+    String getUsername();
+    String getEmail();
+    String getPassword();
+    String getFirstname();
+    String getLastname();
+}
@@ -0,0 +1,233 @@
+package com.example.userapi.security;
+
+import com.example.userapi.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Password encoder that runs the delegate on a dedicated, size-capped executor.
+ * Password hashing is deliberately expensive, so running it on a fixed number of threads with a bounded queue
+ * keeps a burst of sign-ins or registrations from occupying every request thread.
+ * When the queue is full, or a hash waits longer than the configured limit, the call fails fast with
+ * {@link PasswordHashingUnavailableException} instead of queueing indefinitely.
+ * The calling request thread still blocks while it waits, so callers must not hold a database connection
+ * meanwhile; that is why {@code spring.jpa.open-in-view} is disabled.
+ * Batch hashing through {@link #encodeAll(List)} may only occupy {@code batchConcurrency} slots of the pool at a
+ * time, so a large import leaves the remaining threads and the queue to sign-ins and registrations.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final long BATCH_RETRY_MILLIS = 5;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+    private final Semaphore batchPermits;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    /**
+     * @param poolSize the number of hashing threads
+     * @param queueCapacity the number of hashes that may wait for a thread
+     * @param batchConcurrency the number of hashes of batches that may be queued or running at the same time
+     * @param maxWait how long a caller waits for a slot or for its hash before giving up
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, int batchConcurrency,
+                                  Duration maxWait, MeterRegistry meterRegistry) {
+        if (batchConcurrency < 1) {
+            throw new IllegalArgumentException("Batch concurrency must be at least 1: " + batchConcurrency);
+        }
+        this.delegate = delegate;
+        this.maxWait = maxWait;
+        this.batchPermits = new Semaphore(batchConcurrency);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.encodeTimer = Timer.builder("password.hashing")
+                .description("Time spent hashing or verifying passwords")
+                .tag("operation", "encode")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing")
+                .description("Time spent hashing or verifying passwords")
+                .tag("operation", "matches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("Password hashing requests rejected because the pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Password hashing requests waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing requests currently running")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return await(encodeAsync(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Schedules the hashing of a password without waiting for the result.
+     * Useful to hash several passwords in parallel on the hashing pool.
+     *
+     * @param rawPassword the password to hash
+     * @return a future completed with the encoded password
+     * @throws PasswordHashingUnavailableException if the hashing queue is full
+     */
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Hashes several passwords in parallel on the hashing pool, using at most {@code batchConcurrency} slots.
+     * Each password waits up to the maximum wait for a free slot, so the caller is throttled to the speed of
+     * its share of the pool without ever hashing on its own thread.
+     *
+     * @param rawPasswords the passwords to hash
+     * @return the encoded passwords, in the same order
+     * @throws PasswordHashingUnavailableException if a password did not get a slot or its hash within the maximum wait
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(rawPasswords.size());
+        try {
+            for (CharSequence rawPassword : rawPasswords) {
+                futures.add(submitBatch(() -> delegate.encode(rawPassword)));
+            }
+            List<String> encodedPasswords = new ArrayList<>(futures.size());
+            for (CompletableFuture<String> future : futures) {
+                encodedPasswords.add(await(future));
+            }
+            return encodedPasswords;
+        } finally {
+            futures.forEach(future -> future.cancel(false));
+        }
+    }
+    /**
+     * Stops accepting new work and lets queued hashes finish.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Callable<T> task) {
+        CompletableFuture<T> result = trySubmit(timer, task);
+        if (result == null) {
+            rejectedCounter.increment();
+            log.warn("Password hashing pool saturated, rejecting request");
+            throw new PasswordHashingUnavailableException("Too many concurrent password operations, please retry later");
+        }
+        return result;
+    }
+
+    /**
+     * Waits for a batch permit and a free queue slot, then submits the task. The permit is released once
+     * the task completes or is cancelled.
+     */
+    private <T> CompletableFuture<T> submitBatch(Callable<T> task) {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        try {
+            if (!batchPermits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw batchRejected();
+            }
+            CompletableFuture<T> result;
+            while ((result = trySubmit(encodeTimer, task)) == null) {
+                if (System.nanoTime() - deadline >= 0) {
+                    batchPermits.release();
+                    throw batchRejected();
+                }
+                Thread.sleep(BATCH_RETRY_MILLIS);
+            }
+            result.whenComplete((value, error) -> batchPermits.release());
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Interrupted while waiting for a password operation", e);
+        }
+    }
+
+    private PasswordHashingUnavailableException batchRejected() {
+        rejectedCounter.increment();
+        log.warn("No password hashing slot for a batch within {}", maxWait);
+        return new PasswordHashingUnavailableException("Too many concurrent password operations, please retry later");
+    }
+
+    /**
+     * Submits the task to the hashing pool.
+     *
+     * @return a future completed with the result of the task, or {@code null} if the queue is full
+     */
+    private <T> CompletableFuture<T> trySubmit(Timer timer, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            Future<?> future = executor.submit(() -> {
+                try {
+                    result.complete(timer.recordCallable(task));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+            result.whenComplete((value, error) -> {
+                if (result.isCancelled()) {
+                    future.cancel(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+        return result;
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            rejectedCounter.increment();
+            throw new PasswordHashingUnavailableException("Password operation timed out, please retry later", e);
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Interrupted while waiting for a password operation", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password operation failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.userapi.security;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Holds the keys used to sign and verify JWT tokens, each identified by the {@code kid} header of the tokens it signs.
+ * The keys are read from {@code app.jwt.keys.location}, so every instance signs and verifies with the same keys:
+ * <ul>
+ *     <li>a PKCS12 ({@code .p12}, {@code .pfx}) or JKS ({@code .jks}) keystore, where the alias is the key id.
+ *     Secret keys sign with HMAC, RSA private keys with RS256, and certificate-only entries verify RS256 tokens only;</li>
+ *     <li>any other file is read as properties holding Base64 HMAC secrets as {@code key.<kid>=...}
+ *     and the active key id as {@code active=<kid>}.</li>
+ * </ul>
+ * One key is active and signs new tokens; the others only verify tokens that are still in circulation.
+ * The file is re-read when it changes, so a key is rotated by adding it, switching the active key once
+ * every instance has picked it up, and removing the old key after the tokens it signed have expired.
+ * For a properties file {@link JwtKeyRotator} can do these steps on a schedule; keystores are rotated by hand.
+ * Without a location a random key is generated, which only suits a single instance and does not survive a restart.
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+    private static final String ACTIVE_PROPERTY = "active";
+    private static final String KEY_PROPERTY_PREFIX = "key.";
+
+    private final Path location;
+    private final char[] password;
+    private final String configuredActiveKid;
+    private volatile KeySet keySet;
+    private volatile FileTime loadedModificationTime;
+
+    public JwtKeyRing(@Value("${app.jwt.keys.location:}") String location,
+                      @Value("${app.jwt.keys.password:}") String password,
+                      @Value("${app.jwt.keys.active-kid:}") String activeKid) {
+        this.location = location.isBlank() ? null : Path.of(location);
+        this.password = password.toCharArray();
+        this.configuredActiveKid = activeKid.isBlank() ? null : activeKid;
+        if (this.location == null) {
+            logger.warn("No app.jwt.keys.location configured, signing with a generated key that other instances cannot verify");
+            SecretKey secret = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+            SigningKey key = new SigningKey("generated-" + UUID.randomUUID(), SignatureAlgorithm.HS256, secret, secret);
+            this.keySet = new KeySet(key, Map.of(key.kid(), key));
+        } else {
+            try {
+                load();
+            } catch (IOException | GeneralSecurityException e) {
+                throw new IllegalStateException("Could not load the JWT keys from " + this.location, e);
+            }
+        }
+    }
+
+    /**
+     * Re-reads the keys when the file has changed since it was last loaded.
+     * An invalid file is logged and ignored, the keys loaded before stay in use.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.keys.reload-interval:PT1M}",
+            initialDelayString = "${app.jwt.keys.reload-interval:PT1M}")
+    public void reloadIfChanged() {
+        if (location == null) {
+            return;
+        }
+        try {
+            if (!Files.getLastModifiedTime(location).equals(loadedModificationTime)) {
+                load();
+            }
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            logger.error("Could not reload the JWT keys from {}, keeping the current keys", location, e);
+        }
+    }
+
+    /**
+     * Re-reads the keys right away, e.g. after this instance rewrote the file.
+     *
+     * @throws IllegalStateException if the file cannot be read or holds no usable keys
+     */
+    public void reload() {
+        if (location == null) {
+            return;
+        }
+        try {
+            load();
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not load the JWT keys from " + location, e);
+        }
+    }
+
+    /**
+     * @return the key that signs new tokens
+     */
+    public SigningKey activeKey() {
+        return keySet.active();
+    }
+
+    /**
+     * @return every key that currently verifies tokens, the active one included
+     */
+    public Collection<SigningKey> keys() {
+        return keySet.keys().values();
+    }
+
+    /**
+     * @param kid the key id of a token
+     * @return true if tokens signed with the key are still accepted
+     */
+    public boolean contains(String kid) {
+        return kid != null && keySet.keys().containsKey(kid);
+    }
+
+    /**
+     * Resolves the key verifying a token from its header.
+     *
+     * @param kid the {@code kid} header of the token
+     * @param algorithm the {@code alg} header of the token
+     * @return the key verifying the token signature
+     * @throws JwtException if the key is unknown or does not use the algorithm of the token
+     */
+    public Key verificationKey(String kid, String algorithm) {
+        SigningKey key = kid == null ? null : keySet.keys().get(kid);
+        if (key == null) {
+            throw new JwtException("Unknown signing key: " + kid);
+        }
+        if (!key.algorithm().getValue().equals(algorithm)) {
+            throw new JwtException("Signing key " + kid + " does not use " + algorithm);
+        }
+        return key.verificationKey();
+    }
+
+    private void load() throws IOException, GeneralSecurityException {
+        FileTime modificationTime = Files.getLastModifiedTime(location);
+        String fileName = location.getFileName().toString().toLowerCase(Locale.ROOT);
+        KeySet loaded;
+        if (fileName.endsWith(".p12") || fileName.endsWith(".pfx")) {
+            loaded = loadKeyStore("PKCS12");
+        } else if (fileName.endsWith(".jks")) {
+            loaded = loadKeyStore("JKS");
+        } else {
+            loaded = loadProperties();
+        }
+        keySet = loaded;
+        loadedModificationTime = modificationTime;
+        logger.info("Loaded {} JWT keys from {}, signing with {}", loaded.keys().size(), location, loaded.active().kid());
+    }
+
+    private KeySet loadKeyStore(String type) throws IOException, GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance(type);
+        try (InputStream in = Files.newInputStream(location)) {
+            keyStore.load(in, password);
+        }
+        Map<String, SigningKey> keys = new LinkedHashMap<>();
+        for (String alias : Collections.list(keyStore.aliases())) {
+            if (keyStore.isCertificateEntry(alias)) {
+                keys.put(alias, rsaKey(alias, null, keyStore.getCertificate(alias)));
+                continue;
+            }
+            Key key = keyStore.getKey(alias, password);
+            if (key instanceof SecretKey secret) {
+                keys.put(alias, new SigningKey(alias, SignatureAlgorithm.forSigningKey(secret), secret, secret));
+            } else if (key instanceof PrivateKey privateKey) {
+                keys.put(alias, rsaKey(alias, privateKey, keyStore.getCertificate(alias)));
+            }
+        }
+        return keySet(keys, configuredActiveKid);
+    }
+
+    private static SigningKey rsaKey(String alias, PrivateKey privateKey, Certificate certificate) {
+        PublicKey publicKey = certificate == null ? null : certificate.getPublicKey();
+        if (!(publicKey instanceof RSAPublicKey)) {
+            throw new IllegalStateException("Keystore entry " + alias + " is not an RSA key");
+        }
+        return new SigningKey(alias, SignatureAlgorithm.RS256, privateKey, publicKey);
+    }
+
+    private KeySet loadProperties() throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(location)) {
+            properties.load(reader);
+        }
+        Map<String, SigningKey> keys = new LinkedHashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(KEY_PROPERTY_PREFIX)) {
+                String kid = name.substring(KEY_PROPERTY_PREFIX.length());
+                SecretKey secret = Keys.hmacShaKeyFor(Base64.getDecoder().decode(properties.getProperty(name).trim()));
+                keys.put(kid, new SigningKey(kid, SignatureAlgorithm.forSigningKey(secret), secret, secret));
+            }
+        }
+        return keySet(keys, configuredActiveKid != null ? configuredActiveKid : properties.getProperty(ACTIVE_PROPERTY));
+    }
+
+    private KeySet keySet(Map<String, SigningKey> keys, String activeKid) {
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("No JWT keys found in " + location);
+        }
+        if (activeKid == null && keys.size() > 1) {
+            throw new IllegalStateException("Several JWT keys found in " + location + " but no active key is configured");
+        }
+        SigningKey active = activeKid == null ? keys.values().iterator().next() : keys.get(activeKid);
+        if (active == null || active.signingKey() == null) {
+            throw new IllegalStateException("The active JWT key " + activeKid + " cannot sign tokens");
+        }
+        return new KeySet(active, Collections.unmodifiableMap(keys));
+    }
+
+    /**
+     * A key of the ring.
+     *
+     * @param kid the key id written to the {@code kid} header of the tokens it signs
+     * @param algorithm the signature algorithm of the key
+     * @param signingKey the secret or private key, null for a key that only verifies
+     * @param verificationKey the secret or public key
+     */
+    public record SigningKey(String kid, SignatureAlgorithm algorithm, Key signingKey, Key verificationKey) {
+    }
+
+    private record KeySet(SigningKey active, Map<String, SigningKey> keys) {
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.userapi.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Rotates the HMAC keys of a {@link JwtKeyRing} properties file on a schedule:
+ * <ol>
+ *     <li>once the active key is older than the rotation interval, a new key is generated and published in the file,
+ *     so every instance verifies it after its next reload;</li>
+ *     <li>after the grace period the new key becomes the active one and the previous key is marked retired;</li>
+ *     <li>a retired key is removed once every token it signed has expired.</li>
+ * </ol>
+ * The creation and retirement times are kept in the file as {@code created.<kid>} and {@code retired.<kid>};
+ * a key without a creation time is due for rotation. The file is rewritten atomically under a lock file next
+ * to it, so with the file on storage shared by several instances only one of them rotates at a time.
+ * Rewriting drops comments from the file. Keystores cannot be rotated this way.
+ */
+@Component
+@ConditionalOnProperty(name = "app.jwt.keys.rotation.enabled", havingValue = "true")
+public class JwtKeyRotator {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRotator.class);
+    private static final String ACTIVE_PROPERTY = "active";
+    private static final String KEY_PROPERTY_PREFIX = "key.";
+    private static final String CREATED_PROPERTY_PREFIX = "created.";
+    private static final String RETIRED_PROPERTY_PREFIX = "retired.";
+    private static final DateTimeFormatter KID_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss").withZone(ZoneOffset.UTC);
+
+    private final JwtKeyRing keyRing;
+    private final Path location;
+    private final Path lockFile;
+    private final Duration interval;
+    private final Duration gracePeriod;
+    private final Duration retention;
+
+    public JwtKeyRotator(JwtKeyRing keyRing,
+                         @Value("${app.jwt.keys.location:}") String location,
+                         @Value("${app.jwt.keys.active-kid:}") String activeKid,
+                         @Value("${app.jwt.keys.reload-interval:PT1M}") Duration reloadInterval,
+                         @Value("${app.jwt.keys.rotation.interval:P30D}") Duration interval,
+                         @Value("${app.jwt.keys.rotation.grace-period:PT10M}") Duration gracePeriod,
+                         @Value("${app.jwt.expiration-ms:900000}") long tokenLifetimeMs) {
+        String fileName = location.toLowerCase(Locale.ROOT);
+        if (location.isBlank() || fileName.endsWith(".p12") || fileName.endsWith(".pfx") || fileName.endsWith(".jks")) {
+            throw new IllegalStateException("JWT key rotation needs app.jwt.keys.location to be a properties file");
+        }
+        if (!activeKid.isBlank()) {
+            throw new IllegalStateException("JWT key rotation picks the active key itself, remove app.jwt.keys.active-kid");
+        }
+        if (gracePeriod.compareTo(reloadInterval) <= 0) {
+            throw new IllegalStateException("The JWT key rotation grace period must be longer than the reload interval, "
+                    + "so every instance knows a key before it signs");
+        }
+        this.keyRing = keyRing;
+        this.location = Path.of(location);
+        this.lockFile = this.location.resolveSibling(this.location.getFileName() + ".lock");
+        this.interval = interval;
+        this.gracePeriod = gracePeriod;
+        // tokens signed just before the switch may still be verified by instances that reload late
+        this.retention = Duration.ofMillis(tokenLifetimeMs).plus(gracePeriod);
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.keys.rotation.check-interval:PT1M}",
+            initialDelayString = "${app.jwt.keys.rotation.check-interval:PT1M}")
+    public void rotateIfDue() {
+        rotateIfDue(Instant.now());
+    }
+
+    /**
+     * Runs the rotation steps that are due at the given time.
+     *
+     * @param now the current time
+     */
+    public void rotateIfDue(Instant now) {
+        try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = lockChannel.tryLock()) {
+            if (lock == null) {
+                logger.debug("Another instance is rotating the JWT keys");
+                return;
+            }
+            Properties properties = read();
+            if (rotate(properties, now)) {
+                write(properties);
+                keyRing.reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not rotate the JWT keys in {}, keeping the current keys", location, e);
+        }
+    }
+
+    private boolean rotate(Properties properties, Instant now) {
+        boolean changed = false;
+        String activeKid = properties.getProperty(ACTIVE_PROPERTY);
+        Optional<String> pendingKid = kids(properties).stream()
+                .filter(kid -> !kid.equals(activeKid) && properties.getProperty(RETIRED_PROPERTY_PREFIX + kid) == null)
+                .max(Comparator.comparing(kid -> created(properties, kid)));
+
+        if (pendingKid.isPresent()) {
+            if (!created(properties, pendingKid.get()).plus(gracePeriod).isAfter(now)) {
+                if (activeKid != null) {
+                    properties.setProperty(RETIRED_PROPERTY_PREFIX + activeKid, now.toString());
+                }
+                properties.setProperty(ACTIVE_PROPERTY, pendingKid.get());
+                logger.info("Signing JWT tokens with key {}, key {} is retired", pendingKid.get(), activeKid);
+                changed = true;
+            }
+        } else if (activeKid == null || !created(properties, activeKid).plus(interval).isAfter(now)) {
+            String kid = "key-" + KID_TIMESTAMP.format(now);
+            SignatureAlgorithm algorithm = keyRing.activeKey().algorithm().isHmac()
+                    ? keyRing.activeKey().algorithm() : SignatureAlgorithm.HS256;
+            properties.setProperty(KEY_PROPERTY_PREFIX + kid,
+                    Base64.getEncoder().encodeToString(Keys.secretKeyFor(algorithm).getEncoded()));
+            properties.setProperty(CREATED_PROPERTY_PREFIX + kid, now.toString());
+            logger.info("Published JWT key {}, it signs tokens after {}", kid, gracePeriod);
+            changed = true;
+        }
+
+        for (String kid : kids(properties)) {
+            String retired = properties.getProperty(RETIRED_PROPERTY_PREFIX + kid);
+            if (retired != null && !Instant.parse(retired).plus(retention).isAfter(now)) {
+                properties.remove(KEY_PROPERTY_PREFIX + kid);
+                properties.remove(CREATED_PROPERTY_PREFIX + kid);
+                properties.remove(RETIRED_PROPERTY_PREFIX + kid);
+                logger.info("Removed JWT key {}, every token it signed has expired", kid);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private static List<String> kids(Properties properties) {
+        return properties.stringPropertyNames().stream()
+                .filter(name -> name.startsWith(KEY_PROPERTY_PREFIX))
+                .map(name -> name.substring(KEY_PROPERTY_PREFIX.length()))
+                .toList();
+    }
+
+    private static Instant created(Properties properties, String kid) {
+        String created = properties.getProperty(CREATED_PROPERTY_PREFIX + kid);
+        return created == null ? Instant.EPOCH : Instant.parse(created);
+    }
+
+    private Properties read() throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(location)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    private void write(Properties properties) throws IOException {
+        Path temporary = Files.createTempFile(location.toAbsolutePath().getParent(), location.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporary)) {
+                properties.store(writer, "JWT keys, rotated by the application");
+            }
+            Files.move(temporary, location, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
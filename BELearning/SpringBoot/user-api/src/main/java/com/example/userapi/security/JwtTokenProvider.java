@@ -0,0 +1,148 @@
+package com.example.userapi.security;
+
+import com.example.userapi.model.Role;
+import com.example.userapi.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Mints and verifies JWT tokens.
+ * Tokens are signed with the active key of the {@link JwtKeyRing} and carry its id in the {@code kid} header,
+ * which selects the verification key when they come back.
+ * The parser is built once and reused, and verified tokens are kept in a bounded cache
+ * keyed by the SHA-256 of the token, so a token reused across many requests is only
+ * signature-checked once. Cached entries expire together with the token itself, or as soon
+ * as the key that signed them is removed from the ring.
+ */
+@Component
+public class JwtTokenProvider {
+
+    private final JwtKeyRing keyRing;
+    private final JwtParser jwtParser;
+    private final long jwtExpirationMs;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtTokenProvider(JwtKeyRing keyRing,
+                            @Value("${app.jwt.expiration-ms:900000}") long jwtExpirationMs,
+                            @Value("${app.jwt.cache.max-size:10000}") long cacheMaxSize) {
+        this.keyRing = keyRing;
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return keyRing.verificationKey(header.getKeyId(), header.getAlgorithm());
+                    }
+                })
+                .build();
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .build();
+    }
+
+    /**
+     * Generates a JWT token for the user.
+     *
+     * @param user the user for whom the token is generated
+     * @return the generated JWT token
+     */
+    public String generateToken(User user) {
+        List<String> roleNames = user.getRoles().stream().map(Role::getName).collect(Collectors.toList());
+        JwtKeyRing.SigningKey signingKey = keyRing.activeKey();
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getUsername())
+                .claim("roles", roleNames)
+                .claim("ver", user.getTokenVersion())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
+                .signWith(signingKey.signingKey(), signingKey.algorithm())
+                .compact();
+    }
+
+    /**
+     * Verifies the token and returns its claims.
+     * A token that was already verified, has not expired yet and whose key is still in the ring is served from the cache.
+     *
+     * @param token the JWT token to verify
+     * @return the verified claims of the token
+     * @throws JwtException if the token is malformed, expired or has an invalid signature
+     * @throws IllegalArgumentException if the token is empty
+     */
+    public Claims parseClaims(String token) {
+        String cacheKey = hash(token);
+        VerifiedToken verifiedToken = verifiedTokens.getIfPresent(cacheKey);
+        if (verifiedToken != null && keyRing.contains(verifiedToken.kid())) {
+            return verifiedToken.claims();
+        }
+        Jws<Claims> jws = jwtParser.parseClaimsJws(token);
+        Claims claims = jws.getBody();
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(cacheKey, new VerifiedToken(claims, jws.getHeader().getKeyId()));
+        }
+        return claims;
+    }
+
+    /**
+     * Hashes the token so the cache never holds raw credentials.
+     *
+     * @param token the JWT token
+     * @return the Base64 encoded SHA-256 digest of the token
+     */
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record VerifiedToken(Claims claims, String kid) {
+    }
+
+    /**
+     * Expires every cache entry at the {@code exp} claim of its token.
+     */
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken verifiedToken, long currentTime) {
+            long remainingMs = verifiedToken.claims().getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, verifiedToken, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.userapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by client, kept as a single {@code long} each.
+ * Every bucket stores the theoretical arrival time of the next request (GCRA), which behaves like a bucket of
+ * {@code capacity} tokens refilled evenly over {@code refillPeriod}, and is updated with one compare-and-set,
+ * so concurrent requests never lock. The buckets live in a bounded cache. An idle bucket expires once it
+ * would be full again, which is indistinguishable from keeping it. A new bucket always starts full, even while
+ * the cache is at its bound, so spraying random keys cannot lock out clients that have not been seen yet.
+ * The size bound may instead evict a bucket that is still drained and hand its client a fresh burst. Caffeine
+ * admits new keys by their frequency, so the bucket of a client sending steadily outlives keys used only once.
+ */
+public class RateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long capacityNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * @param capacity the number of requests a client may send in a burst
+     * @param refillPeriod the time in which an empty bucket fills up again
+     * @param maxKeys the number of clients tracked at most
+     */
+    public RateLimiter(long capacity, Duration refillPeriod, long maxKeys) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1: " + capacity);
+        }
+        this.emissionIntervalNanos = Math.max(refillPeriod.toNanos() / capacity, 1);
+        this.capacityNanos = emissionIntervalNanos * capacity;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(refillPeriod)
+                // evict on the calling thread, so the cache never grows past its bound between requests
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Takes a token from the bucket of the key.
+     *
+     * @param key the client, e.g. its IP address or the username it signs in with
+     * @return 0 if the request is allowed, otherwise the nanoseconds until the next token is available
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(key, ignored -> new AtomicLong(now));
+        while (true) {
+            long arrivalTime = bucket.get();
+            long next = (arrivalTime - now > 0 ? arrivalTime : now) + emissionIntervalNanos;
+            long waitNanos = next - now - capacityNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (bucket.compareAndSet(arrivalTime, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return the approximate number of tracked clients
+     */
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
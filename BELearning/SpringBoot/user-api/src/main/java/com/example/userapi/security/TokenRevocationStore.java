@@ -0,0 +1,138 @@
+package com.example.userapi.security;
+
+import com.example.userapi.model.RevokedToken;
+import com.example.userapi.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the {@code jti} of every revoked, not yet expired access token in memory.
+ * Ids are grouped in buckets by the expiry of their token, so a lookup only probes the one bucket the
+ * token's {@code exp} falls into, and a whole bucket is dropped once all of its tokens have expired.
+ * Revocations are written to the {@code revoked_tokens} table, loaded from it at startup and polled
+ * by revocation time to pick up those made by other instances. Each poll re-reads an overlap window,
+ * which absorbs clock skew between instances and transactions committing late; adding an id twice is harmless.
+ */
+@Component
+public class TokenRevocationStore {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long bucketSeconds;
+    private final Duration syncOverlap;
+    private final ConcurrentMap<Long, Set<UUID>> buckets = new ConcurrentHashMap<>();
+    private Instant lastSync;
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationStore.class);
+
+    public TokenRevocationStore(RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry,
+                                @Value("${app.auth.revocation.bucket-width:PT1M}") Duration bucketWidth,
+                                @Value("${app.auth.revocation.sync-overlap:PT30S}") Duration syncOverlap) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.bucketSeconds = Math.max(bucketWidth.toSeconds(), 1);
+        this.syncOverlap = syncOverlap;
+        Gauge.builder("auth.token.revocations", this, TokenRevocationStore::size)
+                .description("Revoked access tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param jti the {@code jti} claim of a verified token, may be null for tokens issued without one
+     * @param expiration the {@code exp} claim of the token
+     * @return true if the token was revoked
+     */
+    public boolean isRevoked(String jti, Date expiration) {
+        if (jti == null || expiration == null) {
+            return false;
+        }
+        Set<UUID> bucket = buckets.get(bucketOf(expiration.toInstant()));
+        return bucket != null && bucket.contains(toKey(jti));
+    }
+
+    /**
+     * Revokes a token until it expires, on this instance right away and on the others with their next poll.
+     *
+     * @param jti the {@code jti} claim of the token
+     * @param expiresAt the expiry of the token
+     */
+    public void revoke(String jti, Instant expiresAt) {
+        Instant now = Instant.now();
+        if (!expiresAt.isAfter(now)) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(jti, expiresAt, now));
+        add(jti, expiresAt);
+    }
+
+    /**
+     * Loads every unexpired revocation on the first call, then the ones made since the previous call,
+     * and drops the buckets whose tokens have all expired.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.auth.revocation.sync-interval:PT5S}",
+            initialDelayString = "${app.auth.revocation.sync-interval:PT5S}")
+    public synchronized void synchronize() {
+        Instant start = Instant.now();
+        try {
+            List<RevokedToken> revokedTokens = lastSync == null
+                    ? revokedTokenRepository.findByExpiresAtAfter(start)
+                    : revokedTokenRepository.findByRevokedAtGreaterThanEqual(lastSync.minus(syncOverlap));
+            revokedTokens.forEach(revokedToken -> add(revokedToken.getJti(), revokedToken.getExpiresAt()));
+            lastSync = start;
+        } catch (DataAccessException e) {
+            logger.error("Could not synchronize the revoked tokens, retrying with the next poll", e);
+        }
+        long currentBucket = bucketOf(start);
+        buckets.keySet().removeIf(bucket -> bucket < currentBucket);
+    }
+
+    /**
+     * Removes the rows of expired tokens, which no instance needs anymore.
+     */
+    @Scheduled(fixedDelayString = "${app.auth.revocation.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int purged = revokedTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            logger.info("Purged {} expired token revocations", purged);
+        }
+    }
+
+    private void add(String jti, Instant expiresAt) {
+        buckets.computeIfAbsent(bucketOf(expiresAt), bucket -> ConcurrentHashMap.newKeySet()).add(toKey(jti));
+    }
+
+    private long bucketOf(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), bucketSeconds);
+    }
+
+    /**
+     * Issued ids are UUIDs, kept as two longs instead of their 36 character string.
+     */
+    private static UUID toKey(String jti) {
+        try {
+            return UUID.fromString(jti);
+        } catch (IllegalArgumentException e) {
+            return UUID.nameUUIDFromBytes(jti.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private double size() {
+        return buckets.values().stream().mapToInt(Set::size).sum();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.userapi.security;
+
+import com.example.userapi.event.UserChangeType;
+import com.example.userapi.event.UserChangedEvent;
+import com.example.userapi.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Keeps the current token version of recently seen users in memory.
+ * Used by stateless authentication to reject tokens issued before a password or role change,
+ * or for users that no longer exist, without querying the users table on every request.
+ * Local writes update the cache immediately; writes made by other instances are picked up once the entry expires.
+ */
+@Component
+public class TokenVersionCache {
+
+    private static final int REVOKED = -1;
+
+    private final LoadingCache<String, Integer> tokenVersions;
+
+    public TokenVersionCache(UserRepository userRepository,
+                             @Value("${app.auth.token-version-cache.max-size:10000}") long maxSize,
+                             @Value("${app.auth.token-version-cache.ttl:PT1M}") Duration ttl) {
+        this.tokenVersions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build(username -> userRepository.findTokenVersionByUsername(username).orElse(REVOKED));
+    }
+
+    /**
+     * Checks whether a token carrying the given version is still accepted for the user.
+     *
+     * @param username the subject of the token
+     * @param tokenVersion the version stored in the token
+     * @return true if the user exists and the version is the current one, false otherwise
+     */
+    public boolean isCurrent(String username, int tokenVersion) {
+        int currentVersion = tokenVersions.get(username);
+        return currentVersion != REVOKED && currentVersion == tokenVersion;
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.previousUsername() != null) {
+            tokenVersions.invalidate(event.previousUsername());
+        }
+        if (event.type() == UserChangeType.DELETED) {
+            tokenVersions.put(event.username(), REVOKED);
+        } else {
+            tokenVersions.put(event.username(), event.tokenVersion());
+        }
+    }
+}
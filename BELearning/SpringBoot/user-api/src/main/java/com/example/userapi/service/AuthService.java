@@ -1,10 +1,15 @@
 package com.example.userapi.service;
 
 import com.example.userapi.dto.UserDTO;
+import com.example.userapi.dto.auth.RefreshRequest;
 import com.example.userapi.dto.auth.SignInRequest;
 import com.example.userapi.dto.auth.SignInResponse;
 import com.example.userapi.exception.ClashingUserException;
+import com.example.userapi.exception.InvalidCredentialsException;
 import com.example.userapi.exception.UserNotFoundException;
+import io.jsonwebtoken.Claims;
+
+import java.util.Optional;
 
 public interface AuthService {
 
@@ -12,7 +17,7 @@ public interface AuthService {
      * Signs in a user with the provided credentials.
      *
      * @param signInRequest the sign-in request containing username and password
-     * @return SignInResponse containing the JWT token and user roles
+     * @return SignInResponse containing the JWT token, user roles and refresh token
      * @throws UserNotFoundException if the user is not found
      */
     SignInResponse signIn(SignInRequest signInRequest) throws UserNotFoundException;
@@ -21,11 +26,37 @@ public interface AuthService {
      * Registers a new user with the provided user details.
      *
      * @param userDTO the user details for registration
-     * @return SignInResponse containing the JWT token and user roles
+     * @return SignInResponse containing the JWT token, user roles and refresh token
      * @throws ClashingUserException if a user with the same username or email already exists
      */
     SignInResponse register(UserDTO userDTO) throws ClashingUserException;
 
+    /**
+     * Exchanges a refresh token for a new JWT token and a new refresh token, without checking the password.
+     *
+     * @param refreshRequest the request containing the refresh token
+     * @return SignInResponse containing the JWT token, user roles and the refresh token replacing the presented one
+     * @throws InvalidCredentialsException if the refresh token is not accepted
+     */
+    SignInResponse refresh(RefreshRequest refreshRequest);
+
+    /**
+     * Revokes the provided JWT token until it expires.
+     * Tokens that do not verify or were issued without a {@code jti} claim are ignored.
+     *
+     * @param token the JWT token to revoke
+     */
+    void revokeToken(String token);
+
+    /**
+     * Verifies the provided JWT token once and returns its claims.
+     * This is the single verification path used by the authentication filter.
+     *
+     * @param token the JWT token to verify
+     * @return an {@code Optional} containing the claims if the token is valid, or empty if not
+     */
+    Optional<Claims> verifyToken(String token);
+
     /**
      * Validates the provided JWT token.
      *
@@ -1,25 +1,28 @@
 package com.example.userapi.service;
 
 import com.example.userapi.dto.UserDTO;
+import com.example.userapi.dto.auth.RefreshRequest;
 import com.example.userapi.dto.auth.SignInRequest;
 import com.example.userapi.dto.auth.SignInResponse;
+import com.example.userapi.event.UserChangeType;
+import com.example.userapi.event.UserChangedEvent;
 import com.example.userapi.exception.ClashingUserException;
 import com.example.userapi.exception.InvalidCredentialsException;
+import com.example.userapi.exception.PersistenceExceptionHandler;
 import com.example.userapi.exception.UserNotFoundException;
 import com.example.userapi.model.Role;
 import com.example.userapi.model.User;
-import com.example.userapi.repository.RoleRepository;
 import com.example.userapi.repository.UserRepository;
+import com.example.userapi.security.JwtTokenProvider;
+import com.example.userapi.security.TokenRevocationStore;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -28,15 +31,23 @@ import java.util.stream.Collectors;
 public class AuthServiceImpl implements AuthService{
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final PasswordEncoder passwordEncoder;
-    private final Key jwtSecret = Keys.secretKeyFor(SignatureAlgorithm.HS256);
-    private final long JWT_EXPIRATION_MS = 3600000; // 1 hour in milliseconds
+    private final JwtTokenProvider jwtTokenProvider;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationStore tokenRevocationStore;
 
-    public AuthServiceImpl(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public AuthServiceImpl(UserRepository userRepository, RoleRegistry roleRegistry, PasswordEncoder passwordEncoder,
+                           JwtTokenProvider jwtTokenProvider, ApplicationEventPublisher eventPublisher,
+                           RefreshTokenService refreshTokenService, TokenRevocationStore tokenRevocationStore) {
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
         this.passwordEncoder = passwordEncoder;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.eventPublisher = eventPublisher;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationStore = tokenRevocationStore;
     }
 
 
@@ -53,23 +64,14 @@ public class AuthServiceImpl implements AuthService{
         }
         List<String> roleNames = user.getRoles().stream().map(Role::getName).collect(Collectors.toList());
         String token = generateToken(user);
-        return new SignInResponse(token, roleNames);
+        return new SignInResponse(token, roleNames, refreshTokenService.issue(user));
     }
 
     @Override
     public SignInResponse register(UserDTO userDTO) throws ClashingUserException {
         log.info("Registering user with username: {}", userDTO.getUsername());
-        if (userRepository.existsByUsername(userDTO.getUsername())) {
-            throw new ClashingUserException("Username already exists: " + userDTO.getUsername());
-        }
-        if (userRepository.existsByEmail(userDTO.getEmail())) {
-            throw new InvalidCredentialsException("Email already exists: " + userDTO.getEmail());
-        }
 
-        Set<Role> userRoles = userDTO.getRoles().stream()
-                .map(roleName -> roleRepository.findById(roleName)
-                        .orElseThrow(() -> new IllegalArgumentException("Role Not Found: " + roleName)))
-                .collect(Collectors.toSet());
+        Set<Role> userRoles = roleRegistry.resolve(userDTO.getRoles());
         User user = User.builder()
                 .username(userDTO.getUsername())
                 .email(userDTO.getEmail())
@@ -77,34 +79,57 @@ public class AuthServiceImpl implements AuthService{
                 .roles(userRoles) // Assuming role is set correctly in UserDTO
                 .build();
 
-        User savedUser = userRepository.save(user);
+        // Uniqueness is enforced by the insert itself, a clash is mapped from the violated constraint
+        User savedUser = null;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            PersistenceExceptionHandler.handleConstraintViolationExceptions(e);
+        }
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangeType.CREATED, savedUser.getId(), null,
+                savedUser.getUsername(), savedUser.getEmail(), savedUser.getTokenVersion()));
         List<String> roleNames = savedUser.getRoles().stream().map(Role::getName).collect(Collectors.toList());
         String token = generateToken(savedUser);
-        return new SignInResponse(token, roleNames);
+        return new SignInResponse(token, roleNames, refreshTokenService.issue(savedUser));
     }
 
     @Override
-    public boolean validateToken(String token) {
+    public SignInResponse refresh(RefreshRequest refreshRequest) {
+        RefreshTokenService.RotatedRefreshToken rotated = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+        User user = rotated.user();
+        log.info("Refreshing token of user with username: {}", user.getUsername());
+        List<String> roleNames = user.getRoles().stream().map(Role::getName).collect(Collectors.toList());
+        return new SignInResponse(generateToken(user), roleNames, rotated.refreshToken());
+    }
+
+    @Override
+    public void revokeToken(String token) {
+        verifyToken(token)
+                .filter(claims -> claims.getId() != null && claims.getExpiration() != null)
+                .ifPresent(claims -> {
+                    log.info("Revoking token {} of user with username: {}", claims.getId(), claims.getSubject());
+                    tokenRevocationStore.revoke(claims.getId(), claims.getExpiration().toInstant());
+                });
+    }
+
+    @Override
+    public Optional<Claims> verifyToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(jwtSecret)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException e) {
+            return Optional.of(jwtTokenProvider.parseClaims(token));
+        } catch (JwtException | IllegalArgumentException e) {
             log.error("JwtException --" + e.getMessage());
-            return false;
+            return Optional.empty();
         }
     }
 
+    @Override
+    public boolean validateToken(String token) {
+        return verifyToken(token).isPresent();
+    }
+
     @Override
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(jwtSecret)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        return jwtTokenProvider.parseClaims(token).getSubject();
     }
 
     /**
@@ -114,13 +139,6 @@ public class AuthServiceImpl implements AuthService{
      * @return the generated JWT token
      */
     private String generateToken(User user) {
-        List<String> roleNames = user.getRoles().stream().map(Role::getName).collect(Collectors.toList());
-        return Jwts.builder()
-                .setSubject(user.getUsername())
-                .claim("roles", roleNames)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION_MS))
-                .signWith(jwtSecret)
-                .compact();
+        return jwtTokenProvider.generateToken(user);
     }
 }
@@ -1,24 +1,78 @@
 package com.example.userapi.service;
 
+import com.example.userapi.event.UserChangedEvent;
 import com.example.userapi.model.User;
 import com.example.userapi.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Collectors;
 
+/**
+ * Loads users for Spring Security through a bounded in-process cache.
+ * Entries are evicted as soon as the user is written, so a cached principal never outlives
+ * a username, password or role change made through this instance.
+ */
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final Cache<String, UserDetails> userDetailsCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, long cacheMaxSize, Duration cacheTtl,
+                                    MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.userDetailsCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetailsCache, "userDetails");
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserDetails userDetails = userDetailsCache.get(username, this::loadFromRepository);
+        // Spring Security erases the credentials of the returned principal, so never hand out the cached instance
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails).build();
+    }
+
+    /**
+     * Removes the given username from the cache.
+     *
+     * @param username the username to evict
+     */
+    public void evictUser(String username) {
+        userDetailsCache.invalidate(username);
+    }
+
+    /**
+     * Returns the hit, miss and eviction statistics of the cache.
+     *
+     * @return a snapshot of the cache statistics
+     */
+    public CacheStats getCacheStats() {
+        return userDetailsCache.stats();
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.previousUsername() != null) {
+            evictUser(event.previousUsername());
+        }
+        evictUser(event.username());
+    }
+
+    private UserDetails loadFromRepository(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
         List<SimpleGrantedAuthority> authorities = user.getRoles().stream()
@@ -0,0 +1,71 @@
+package com.example.userapi.service;
+
+import com.example.userapi.dto.UserResponseDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * R2DBC implementation of {@link UserQueryService}.
+ * Each user is read together with its aggregated role names in a single statement. The names are aggregated
+ * into an array, so no separator character has to be reserved in them.
+ */
+@Service
+@ConditionalOnProperty(name = "app.r2dbc.enabled", havingValue = "true")
+public class ReactiveUserQueryService implements UserQueryService {
+
+    private static final String SELECT_USERS =
+            "SELECT u.id, u.username, u.email, u.password, u.firstname, u.lastname, " +
+            "array_agg(ur.role_name) FILTER (WHERE ur.role_name IS NOT NULL) AS roles " +
+            "FROM users u LEFT JOIN user_roles ur ON ur.user_id = u.id ";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveUserQueryService(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Mono<UserResponseDTO> getUserById(Long id) {
+        return databaseClient.sql(SELECT_USERS + "WHERE u.id = :id GROUP BY u.id")
+                .bind("id", id)
+                .map(ReactiveUserQueryService::toUserResponseDTO)
+                .one();
+    }
+
+    @Override
+    public Mono<UserResponseDTO> getUserByUsername(String username) {
+        return databaseClient.sql(SELECT_USERS + "WHERE u.username = :username GROUP BY u.id")
+                .bind("username", username)
+                .map(ReactiveUserQueryService::toUserResponseDTO)
+                .one();
+    }
+
+    @Override
+    public Flux<UserResponseDTO> getUsersAfter(Long afterId, int limit) {
+        return databaseClient.sql(SELECT_USERS + "WHERE u.id > :afterId GROUP BY u.id ORDER BY u.id LIMIT :limit")
+                .bind("afterId", afterId == null ? 0L : afterId)
+                .bind("limit", limit)
+                .map(ReactiveUserQueryService::toUserResponseDTO)
+                .all();
+    }
+
+    private static UserResponseDTO toUserResponseDTO(Readable row) {
+        UserResponseDTO userResponseDTO = new UserResponseDTO();
+        userResponseDTO.setId(row.get("id", Long.class));
+        userResponseDTO.setUsername(row.get("username", String.class));
+        userResponseDTO.setEmail(row.get("email", String.class));
+        userResponseDTO.setPassword(row.get("password", String.class));
+        userResponseDTO.setFirstname(row.get("firstname", String.class));
+        userResponseDTO.setLastname(row.get("lastname", String.class));
+        // users without roles aggregate no rows, which yields null rather than an empty array
+        String[] roles = row.get("roles", String[].class);
+        userResponseDTO.setRoles(roles == null ? Set.of() : Set.of(roles));
+        return userResponseDTO;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.userapi.service;
+
+import com.example.userapi.exception.InvalidCredentialsException;
+import com.example.userapi.model.User;
+
+public interface RefreshTokenService {
+
+    /**
+     * Issues the first refresh token of a new family, on sign-in or registration.
+     *
+     * @param user the user the token is issued to
+     * @return the raw refresh token, only its hash is stored
+     */
+    String issue(User user);
+
+    /**
+     * Exchanges a refresh token for a new one of the same family.
+     * The presented token can never be used again; presenting it a second time revokes its family.
+     *
+     * @param refreshToken the raw refresh token
+     * @return the user of the token and the raw refresh token replacing it
+     * @throws InvalidCredentialsException if the token is unknown, expired, already used
+     *                                     or issued before a credential or role change
+     */
+    RotatedRefreshToken rotate(String refreshToken);
+
+    /**
+     * The result of a rotation.
+     *
+     * @param user the user of the token, with its roles
+     * @param refreshToken the raw refresh token replacing the presented one
+     */
+    record RotatedRefreshToken(User user, String refreshToken) {
+    }
+}
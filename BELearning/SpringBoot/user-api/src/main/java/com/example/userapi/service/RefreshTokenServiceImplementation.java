@@ -0,0 +1,106 @@
+package com.example.userapi.service;
+
+import com.example.userapi.exception.InvalidCredentialsException;
+import com.example.userapi.model.RefreshToken;
+import com.example.userapi.model.User;
+import com.example.userapi.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens.
+ * Tokens are 256 random bits, so they are stored as a plain SHA-256 digest: unlike a password they cannot be
+ * guessed, and a refresh costs one indexed lookup instead of a BCrypt verification.
+ * A token is marked used with a conditional update, so of two concurrent refreshes with the same token only
+ * one succeeds and the other is handled as a reuse.
+ */
+@Service
+public class RefreshTokenServiceImplementation implements RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final String INVALID_TOKEN = "Invalid refresh token";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration ttl;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenServiceImplementation.class);
+
+    public RefreshTokenServiceImplementation(RefreshTokenRepository refreshTokenRepository,
+                                             @Value("${app.jwt.refresh.ttl:P14D}") Duration ttl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public String issue(User user) {
+        return save(user, UUID.randomUUID().toString());
+    }
+
+    @Override
+    public RotatedRefreshToken rotate(String refreshToken) {
+        RefreshToken presented = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new InvalidCredentialsException(INVALID_TOKEN));
+        User user = presented.getUser();
+        Instant now = Instant.now();
+
+        if (presented.getUsedAt() != null || refreshTokenRepository.markUsed(presented.getId(), now) == 0) {
+            logger.warn("Refresh token reused for user {}, revoking its family", user.getUsername());
+            refreshTokenRepository.deleteByFamily(presented.getFamily());
+            throw new InvalidCredentialsException(INVALID_TOKEN);
+        }
+        if (presented.getExpiresAt().isBefore(now)) {
+            throw new InvalidCredentialsException("Refresh token expired");
+        }
+        if (presented.getTokenVersion() != user.getTokenVersion()) {
+            refreshTokenRepository.deleteByFamily(presented.getFamily());
+            throw new InvalidCredentialsException(INVALID_TOKEN);
+        }
+        return new RotatedRefreshToken(user, save(user, presented.getFamily()));
+    }
+
+    /**
+     * Removes expired tokens, used tokens are kept until then to detect their reuse.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.refresh.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            logger.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    private String save(User user, String family) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(refreshToken))
+                .family(family)
+                .user(user)
+                .tokenVersion(user.getTokenVersion())
+                .expiresAt(Instant.now().plus(ttl))
+                .build());
+        return refreshToken;
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(refreshToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
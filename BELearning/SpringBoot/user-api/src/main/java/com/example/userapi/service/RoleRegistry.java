@@ -0,0 +1,88 @@
+package com.example.userapi.service;
+
+import com.example.userapi.model.Role;
+import com.example.userapi.repository.RoleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory registry of the available roles.
+ * Roles almost never change, so they are loaded once into an immutable map and resolved from memory.
+ * Names missing from the registry are looked up with a single batched query before being rejected,
+ * so roles added directly in the database are picked up without a restart.
+ */
+@Component
+@Slf4j
+public class RoleRegistry {
+
+    private final RoleRepository roleRepository;
+    private volatile Map<String, Role> rolesByName;
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    /**
+     * Converts a set of role names to a set of Role entities.
+     *
+     * @param roleNames the set of role names
+     * @return a set of Role entities
+     * @throws IllegalArgumentException if any role name does not exist in the repository
+     */
+    public Set<Role> resolve(Set<String> roleNames) {
+        Map<String, Role> roles = getRolesByName();
+        List<String> unknownNames = roleNames.stream()
+                .filter(roleName -> !roles.containsKey(roleName))
+                .collect(Collectors.toList());
+        Map<String, Role> resolvableRoles = unknownNames.isEmpty() ? roles : loadUnknownRoles(unknownNames);
+
+        return roleNames.stream()
+                .map(roleName -> {
+                    Role role = resolvableRoles.get(roleName);
+                    if (role == null) {
+                        throw new IllegalArgumentException("Role Not Found: " + roleName);
+                    }
+                    return role;
+                })
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Reloads all roles from the repository, replacing the current registry.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        rolesByName = roleRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Role::getName, Function.identity()));
+        log.info("Role registry loaded with {} roles", rolesByName.size());
+    }
+
+    private Map<String, Role> getRolesByName() {
+        Map<String, Role> roles = rolesByName;
+        if (roles == null) {
+            refresh();
+            roles = rolesByName;
+        }
+        return roles;
+    }
+
+    private synchronized Map<String, Role> loadUnknownRoles(List<String> unknownNames) {
+        List<Role> loadedRoles = roleRepository.findAllById(unknownNames);
+        if (loadedRoles.isEmpty()) {
+            return rolesByName;
+        }
+        Map<String, Role> roles = new HashMap<>(rolesByName);
+        loadedRoles.forEach(role -> roles.put(role.getName(), role));
+        rolesByName = Map.copyOf(roles);
+        return rolesByName;
+    }
+}
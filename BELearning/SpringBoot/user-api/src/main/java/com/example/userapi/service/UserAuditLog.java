@@ -0,0 +1,294 @@
+package com.example.userapi.service;
+
+import com.example.userapi.event.UserAuditRecord;
+import com.example.userapi.event.UserChangedEvent;
+import com.example.userapi.util.MpmcRingBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes an audit trail of committed user changes without slowing the writes down.
+ * The change listener only builds a record and offers it to a lock-free ring buffer; a single background
+ * thread drains the buffer in batches and appends them as JSON lines to the current segment file, which is
+ * synced to disk after every batch and replaced by a new file once it reaches the maximum segment size.
+ * Segments are never reopened, so the log is append-only.
+ * A batch that fails to write is retried on a new segment until it succeeds, so every record that made it
+ * into the buffer is written at least once; a retry may repeat records or leave a partial last line in the
+ * failed segment. On shutdown the writer drains the buffer before it stops.
+ * When the buffer is full, a change waits up to {@code app.audit.max-enqueue-wait} for a free slot; after that
+ * its record is appended and synced to an overflow segment on the calling thread, which is slow but keeps
+ * the guarantee. The wait is a few milliseconds, so a burst of changes does not hold every writer back for
+ * long. Records of changes committed while the log shuts down take the overflow path as well, because the
+ * writer may already have made its last pass. A record is only lost if the synchronous append fails, or
+ * arrives after the log is closed, which is logged and counted.
+ * Overflow segments interleave in time with the regular ones, so readers order records by their timestamp.
+ */
+@Component
+@ConditionalOnProperty(name = "app.audit.enabled", havingValue = "true", matchIfMissing = true)
+public class UserAuditLog implements DisposableBean {
+
+    private static final DateTimeFormatter SEGMENT_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss.SSS").withZone(ZoneOffset.UTC);
+    private static final long ENQUEUE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long RETRY_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MpmcRingBuffer<UserAuditRecord> buffer;
+    private final ObjectWriter objectWriter;
+    private final Path directory;
+    private final int batchSize;
+    private final long segmentMaxBytes;
+    private final long maxEnqueueWaitNanos;
+    private final long idleWaitNanos;
+    private final Duration shutdownTimeout;
+    private final Counter written;
+    private final Counter spilled;
+    private final Counter dropped;
+    private final Counter writeFailures;
+    private final Thread writer;
+    private volatile boolean running = true;
+    // only touched by the writer thread, except segmentCount which newSegment guards
+    private FileChannel segment;
+    private long segmentSize;
+    private long segmentCount;
+    private final Object overflowLock = new Object();
+    // guarded by overflowLock, shared by the callers that found the buffer full
+    private FileChannel overflowSegment;
+    private long overflowSegmentSize;
+    private boolean overflowClosed;
+    private static final Logger logger = LoggerFactory.getLogger(UserAuditLog.class);
+
+    public UserAuditLog(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                        @Value("${app.audit.directory:audit}") Path directory,
+                        @Value("${app.audit.buffer-capacity:65536}") int bufferCapacity,
+                        @Value("${app.audit.batch-size:512}") int batchSize,
+                        @Value("${app.audit.segment-max-bytes:67108864}") long segmentMaxBytes,
+                        @Value("${app.audit.max-enqueue-wait:PT0.002S}") Duration maxEnqueueWait,
+                        @Value("${app.audit.idle-wait:PT0.05S}") Duration idleWait,
+                        @Value("${app.audit.shutdown-timeout:PT10S}") Duration shutdownTimeout) throws IOException {
+        this.buffer = new MpmcRingBuffer<>(bufferCapacity);
+        this.objectWriter = objectMapper.writerFor(UserAuditRecord.class);
+        this.directory = Files.createDirectories(directory);
+        this.batchSize = batchSize;
+        this.segmentMaxBytes = segmentMaxBytes;
+        this.maxEnqueueWaitNanos = maxEnqueueWait.toNanos();
+        this.idleWaitNanos = idleWait.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.written = auditCounter(meterRegistry, "written");
+        this.spilled = auditCounter(meterRegistry, "spilled");
+        this.dropped = auditCounter(meterRegistry, "dropped");
+        this.writeFailures = Counter.builder("audit.write.failures")
+                .description("Audit batches that failed to write and were retried")
+                .register(meterRegistry);
+        Gauge.builder("audit.queue.size", buffer, MpmcRingBuffer::size)
+                .description("Audit records waiting to be written")
+                .register(meterRegistry);
+        TimeGauge.builder("audit.queue.lag", this, TimeUnit.SECONDS, UserAuditLog::lagSeconds)
+                .description("Age of the oldest audit record waiting to be written")
+                .register(meterRegistry);
+
+        this.writer = Thread.ofPlatform().name("audit-writer").daemon().unstarted(this::writeLoop);
+        this.writer.start();
+    }
+
+    private static Counter auditCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("audit.records")
+                .description("Audit records by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        enqueue(new UserAuditRecord(UUID.randomUUID(), Instant.now(), currentActor(), event.type(),
+                event.userId(), event.username(), event.previousUsername()));
+    }
+
+    private void enqueue(UserAuditRecord record) {
+        if (!running) {
+            spill(record);
+            return;
+        }
+        long start = System.nanoTime();
+        while (!buffer.offer(record)) {
+            if (System.nanoTime() - start >= maxEnqueueWaitNanos) {
+                spill(record);
+                return;
+            }
+            LockSupport.parkNanos(ENQUEUE_PARK_NANOS);
+        }
+        if (!running) {
+            // shutdown started meanwhile, the writer may have stopped before it saw the record
+            spillBuffered();
+        }
+    }
+
+    /**
+     * Moves the records left in the buffer to the overflow segment; each record is taken by one caller only.
+     */
+    private void spillBuffered() {
+        UserAuditRecord record;
+        while ((record = buffer.poll()) != null) {
+            spill(record);
+        }
+    }
+
+    /**
+     * Appends a record that did not fit in the buffer to the overflow segment and syncs it before returning.
+     */
+    private void spill(UserAuditRecord record) {
+        synchronized (overflowLock) {
+            try {
+                if (overflowClosed) {
+                    throw new IOException("Audit log is closed");
+                }
+                if (overflowSegment == null || overflowSegmentSize >= segmentMaxBytes) {
+                    closeQuietly(overflowSegment);
+                    overflowSegment = newSegment("audit-overflow-");
+                    overflowSegmentSize = 0;
+                }
+                overflowSegmentSize += append(overflowSegment, List.of(record));
+                spilled.increment();
+            } catch (IOException e) {
+                closeQuietly(overflowSegment);
+                overflowSegment = null;
+                dropped.increment();
+                logger.error("Could not append to the audit overflow segment, dropping {}", record, e);
+            }
+        }
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return "anonymous";
+        }
+        return authentication.getName();
+    }
+
+    private void writeLoop() {
+        List<UserAuditRecord> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0 || !batch.isEmpty()) {
+            if (batch.isEmpty() && buffer.drainTo(batch, batchSize) == 0) {
+                LockSupport.parkNanos(idleWaitNanos);
+                continue;
+            }
+            try {
+                write(batch);
+                written.increment(batch.size());
+                batch.clear();
+            } catch (IOException e) {
+                writeFailures.increment();
+                logger.error("Could not write {} audit records, retrying on a new segment", batch.size(), e);
+                closeSegment();
+                LockSupport.parkNanos(RETRY_BACKOFF_NANOS);
+            }
+        }
+        closeSegment();
+    }
+
+    private void write(List<UserAuditRecord> batch) throws IOException {
+        if (segment == null || segmentSize >= segmentMaxBytes) {
+            closeSegment();
+            segment = newSegment("audit-");
+            segmentSize = 0;
+        }
+        segmentSize += append(segment, batch);
+    }
+
+    /**
+     * Writes the records as JSON lines and syncs them to disk.
+     *
+     * @return the number of bytes written
+     */
+    private long append(FileChannel channel, List<UserAuditRecord> records) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(records.size() * 256);
+        for (UserAuditRecord record : records) {
+            lines.write(objectWriter.writeValueAsBytes(record));
+            lines.write('\n');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(lines.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+        return bytes.limit();
+    }
+
+    private synchronized FileChannel newSegment(String prefix) throws IOException {
+        Path path = directory.resolve(prefix + SEGMENT_TIMESTAMP.format(Instant.now()) + "-" + segmentCount++ + ".jsonl");
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        logger.info("Writing audit records to {}", path);
+        return channel;
+    }
+
+    private void closeSegment() {
+        closeQuietly(segment);
+        segment = null;
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Could not close the audit segment", e);
+        }
+    }
+
+    private double lagSeconds() {
+        UserAuditRecord oldest = buffer.peek();
+        return oldest == null ? 0 : Math.max(Duration.between(oldest.timestamp(), Instant.now()).toNanos(), 0) / 1e9;
+    }
+
+    /**
+     * Stops the writer once every buffered record is written, or the timeout elapsed, and spills what is left.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        if (!writer.join(shutdownTimeout)) {
+            logger.error("Audit writer did not finish within {}, spilling {} records", shutdownTimeout, buffer.size());
+        }
+        spillBuffered();
+        synchronized (overflowLock) {
+            overflowClosed = true;
+            closeQuietly(overflowSegment);
+            overflowSegment = null;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.userapi.service;
+
+public interface UserAvailabilityService {
+
+    /**
+     * Checks whether no user has the given username.
+     *
+     * @param username the username to check
+     * @return true if the username is free
+     */
+    boolean isUsernameAvailable(String username);
+
+    /**
+     * Checks whether no user has the given email.
+     *
+     * @param email the email to check
+     * @return true if the email is free
+     */
+    boolean isEmailAvailable(String email);
+
+    /**
+     * Checks the in-memory filter only, without querying the database.
+     *
+     * @param username the username to check
+     * @return false if the username is certainly free, true if it may be taken
+     */
+    boolean mayUsernameBeTaken(String username);
+
+    /**
+     * Checks the in-memory filter only, without querying the database.
+     *
+     * @param email the email to check
+     * @return false if the email is certainly free, true if it may be taken
+     */
+    boolean mayEmailBeTaken(String email);
+}
@@ -0,0 +1,151 @@
+package com.example.userapi.service;
+
+import com.example.userapi.event.UserChangedEvent;
+import com.example.userapi.repository.UserRepository;
+import com.example.userapi.repository.projection.UserIdentifiers;
+import com.example.userapi.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+/**
+ * Answers availability checks from Bloom filters over all taken usernames and emails.
+ * A name the filter has never seen is certainly free and is answered without a query; only possible
+ * hits are confirmed with the database. The filters are built from a streaming scan at startup and
+ * rebuilt periodically, which also drops the names of deleted users, and every local write adds its
+ * names right away. Names taken through another instance are only seen after the next rebuild, which
+ * is harmless for registration since the unique constraints still reject the insert.
+ */
+@Service
+public class UserAvailabilityServiceImplementation implements UserAvailabilityService {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long minExpectedInsertions;
+    private final double falsePositiveProbability;
+    private final Counter usernameFiltered;
+    private final Counter usernameTaken;
+    private final Counter usernameFalsePositive;
+    private final Counter emailFiltered;
+    private final Counter emailTaken;
+    private final Counter emailFalsePositive;
+    private volatile Filters filters;
+    // filled by writes while a rebuild scans the table, so names written during the scan are not lost
+    private volatile Filters rebuilding;
+    private static final Logger logger = LoggerFactory.getLogger(UserAvailabilityServiceImplementation.class);
+
+    public UserAvailabilityServiceImplementation(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                                                 MeterRegistry meterRegistry,
+                                                 @Value("${app.users.availability.min-expected-insertions:100000}") long minExpectedInsertions,
+                                                 @Value("${app.users.availability.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.minExpectedInsertions = minExpectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.usernameFiltered = checkCounter(meterRegistry, "username", "filtered");
+        this.usernameTaken = checkCounter(meterRegistry, "username", "taken");
+        this.usernameFalsePositive = checkCounter(meterRegistry, "username", "false_positive");
+        this.emailFiltered = checkCounter(meterRegistry, "email", "filtered");
+        this.emailTaken = checkCounter(meterRegistry, "email", "taken");
+        this.emailFalsePositive = checkCounter(meterRegistry, "email", "false_positive");
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String field, String outcome) {
+        return Counter.builder("user.availability.checks")
+                .description("Availability checks by how they were answered")
+                .tag("field", field)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean isUsernameAvailable(String username) {
+        if (!mayUsernameBeTaken(username)) {
+            usernameFiltered.increment();
+            return true;
+        }
+        boolean taken = userRepository.existsByUsername(username);
+        (taken ? usernameTaken : usernameFalsePositive).increment();
+        return !taken;
+    }
+
+    @Override
+    public boolean isEmailAvailable(String email) {
+        if (!mayEmailBeTaken(email)) {
+            emailFiltered.increment();
+            return true;
+        }
+        boolean taken = userRepository.existsByEmail(email);
+        (taken ? emailTaken : emailFalsePositive).increment();
+        return !taken;
+    }
+
+    @Override
+    public boolean mayUsernameBeTaken(String username) {
+        Filters current = filters;
+        return current == null || current.usernames().mightContain(username);
+    }
+
+    @Override
+    public boolean mayEmailBeTaken(String email) {
+        Filters current = filters;
+        return current == null || current.emails().mightContain(email);
+    }
+
+    /**
+     * Builds new filters from a scan of the users table and swaps them in.
+     * Until the first build completes every check goes to the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.users.availability.rebuild-interval:PT6H}",
+            fixedDelayString = "${app.users.availability.rebuild-interval:PT6H}")
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        // leave room to grow until the next rebuild
+        long expectedInsertions = Math.max(minExpectedInsertions, userRepository.countUsers() * 2);
+        Filters next = new Filters(new BloomFilter(expectedInsertions, falsePositiveProbability),
+                new BloomFilter(expectedInsertions, falsePositiveProbability));
+        rebuilding = next;
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<UserIdentifiers> users = userRepository.streamIdentifiers()) {
+                    users.forEach(next::add);
+                }
+            });
+            filters = next;
+        } finally {
+            rebuilding = null;
+        }
+        logger.info("Service - Built availability filters for {} expected users in {} ms",
+                expectedInsertions, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        for (Filters target : new Filters[]{filters, rebuilding}) {
+            if (target != null) {
+                target.usernames().put(event.username());
+                target.emails().put(event.email());
+            }
+        }
+    }
+
+    private record Filters(BloomFilter usernames, BloomFilter emails) {
+
+        void add(UserIdentifiers user) {
+            usernames.put(user.getUsername());
+            emails.put(user.getEmail());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.userapi.service;
+
+import com.example.userapi.dto.BatchUserResult;
+import com.example.userapi.dto.UserDTO;
+
+import java.util.List;
+
+/**
+ * Service interface for creating large numbers of users at once.
+ */
+public interface UserBatchService {
+
+    /**
+     * Creates all valid users of the batch.
+     * Each item is validated and checked for clashes on its own, so an invalid or clashing item
+     * is reported in its result without failing the rest of the batch.
+     *
+     * @param users the users to create
+     * @return one result per item, in the same order as the input
+     * @throws IllegalArgumentException if the batch is larger than the configured maximum
+     */
+    List<BatchUserResult> addUsers(List<UserDTO> users);
+}
@@ -0,0 +1,243 @@
+package com.example.userapi.service;
+
+import com.example.userapi.dto.BatchUserResult;
+import com.example.userapi.dto.UserDTO;
+import com.example.userapi.dto.UserResponseMapper;
+import com.example.userapi.event.UserChangeType;
+import com.example.userapi.event.UserChangedEvent;
+import com.example.userapi.exception.ClashingUserException;
+import com.example.userapi.exception.PasswordHashingUnavailableException;
+import com.example.userapi.exception.PersistenceExceptionHandler;
+import com.example.userapi.model.Role;
+import com.example.userapi.model.User;
+import com.example.userapi.repository.UserRepository;
+import com.example.userapi.security.BoundedPasswordEncoder;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Creates users in chunks of the JDBC batch size.
+ * For every chunk the usernames and emails the availability filter cannot rule out are looked up with one query each, the passwords are
+ * hashed in parallel on the hashing pool and the users and their roles are inserted in JDBC batches
+ * within a single transaction. If a concurrent writer takes a name between the check and the insert,
+ * the chunk is retried one user at a time so only the clashing item is reported as a conflict.
+ * If the hashing pool rejects a chunk, the chunks already inserted stay committed, and that chunk and the ones after it
+ * are reported as unavailable so the client can resubmit exactly those items.
+ */
+@Service
+public class UserBatchServiceImplementation implements UserBatchService {
+
+    private final UserRepository userRepository;
+    private final RoleRegistry roleRegistry;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserAvailabilityService userAvailabilityService;
+    private final int chunkSize;
+    private final int maxBatchSize;
+    private static final Logger logger = LoggerFactory.getLogger(UserBatchServiceImplementation.class);
+
+    public UserBatchServiceImplementation(UserRepository userRepository, RoleRegistry roleRegistry,
+                                          BoundedPasswordEncoder passwordEncoder, Validator validator,
+                                          PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                                          UserAvailabilityService userAvailabilityService,
+                                          @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int chunkSize,
+                                          @Value("${app.users.batch.max-size:10000}") int maxBatchSize) {
+        this.userRepository = userRepository;
+        this.roleRegistry = roleRegistry;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.userAvailabilityService = userAvailabilityService;
+        this.chunkSize = chunkSize;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public List<BatchUserResult> addUsers(List<UserDTO> users) {
+        if (users.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch of " + users.size() + " users exceeds the maximum of " + maxBatchSize);
+        }
+        logger.info("Service - Creating batch of {} users", users.size());
+
+        BatchUserResult[] results = new BatchUserResult[users.size()];
+        List<PendingUser> pendingUsers = prepare(users, results);
+        for (int from = 0; from < pendingUsers.size(); from += chunkSize) {
+            try {
+                insertChunk(pendingUsers.subList(from, Math.min(from + chunkSize, pendingUsers.size())), results);
+            } catch (PasswordHashingUnavailableException e) {
+                logger.warn("Service - Password hashing unavailable, {} of {} users left for a retry", pendingUsers.size() - from, users.size());
+                markUnavailable(pendingUsers.subList(from, pendingUsers.size()), e.getMessage(), results);
+                break;
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Reports the items without a result as unavailable; items of the chunk already found to clash keep their conflict.
+     */
+    private void markUnavailable(List<PendingUser> pendingUsers, String message, BatchUserResult[] results) {
+        for (PendingUser pendingUser : pendingUsers) {
+            int index = pendingUser.index();
+            if (results[index] == null) {
+                results[index] = BatchUserResult.unavailable(index, message);
+            }
+        }
+    }
+
+    /**
+     * Validates every item and rejects clashes inside the batch itself.
+     *
+     * @param users the users of the batch
+     * @param results the results array, filled in for rejected items
+     * @return the items that can be inserted
+     */
+    private List<PendingUser> prepare(List<UserDTO> users, BatchUserResult[] results) {
+        List<PendingUser> pendingUsers = new ArrayList<>(users.size());
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+
+        for (int index = 0; index < users.size(); index++) {
+            UserDTO userDTO = users.get(index);
+            if (userDTO == null) {
+                results[index] = BatchUserResult.invalid(index, "User is required");
+                continue;
+            }
+            Set<ConstraintViolation<UserDTO>> violations = validator.validate(userDTO);
+            if (!violations.isEmpty()) {
+                ConstraintViolation<UserDTO> violation = violations.iterator().next();
+                results[index] = BatchUserResult.invalid(index, violation.getPropertyPath() + ": " + violation.getMessage());
+                continue;
+            }
+            Set<Role> roles;
+            try {
+                roles = roleRegistry.resolve(userDTO.getRoles());
+            } catch (IllegalArgumentException e) {
+                results[index] = BatchUserResult.invalid(index, e.getMessage());
+                continue;
+            }
+            if (usernames.contains(userDTO.getUsername())) {
+                results[index] = BatchUserResult.conflict(index, "Username already exists: " + userDTO.getUsername());
+                continue;
+            }
+            if (emails.contains(userDTO.getEmail())) {
+                results[index] = BatchUserResult.conflict(index, "Email already exists: " + userDTO.getEmail());
+                continue;
+            }
+            usernames.add(userDTO.getUsername());
+            emails.add(userDTO.getEmail());
+            pendingUsers.add(new PendingUser(index, userDTO, roles));
+        }
+        return pendingUsers;
+    }
+
+    /**
+     * Inserts one chunk of users in a single transaction.
+     *
+     * @param chunk the users to insert
+     * @param results the results array, filled in for every item of the chunk
+     * @throws PasswordHashingUnavailableException if the hashing pool rejects the chunk, before anything is inserted
+     */
+    private void insertChunk(List<PendingUser> chunk, BatchUserResult[] results) {
+        // only names the availability filter cannot rule out are looked up
+        List<String> candidateUsernames = chunk.stream().map(pendingUser -> pendingUser.userDTO().getUsername())
+                .filter(userAvailabilityService::mayUsernameBeTaken).toList();
+        List<String> candidateEmails = chunk.stream().map(pendingUser -> pendingUser.userDTO().getEmail())
+                .filter(userAvailabilityService::mayEmailBeTaken).toList();
+        Set<String> takenUsernames = candidateUsernames.isEmpty() ? Set.of() : userRepository.findExistingUsernames(candidateUsernames);
+        Set<String> takenEmails = candidateEmails.isEmpty() ? Set.of() : userRepository.findExistingEmails(candidateEmails);
+
+        List<PendingUser> insertableUsers = new ArrayList<>(chunk.size());
+        for (PendingUser pendingUser : chunk) {
+            int index = pendingUser.index();
+            if (takenUsernames.contains(pendingUser.userDTO().getUsername())) {
+                results[index] = BatchUserResult.conflict(index, "Username already exists: " + pendingUser.userDTO().getUsername());
+            } else if (takenEmails.contains(pendingUser.userDTO().getEmail())) {
+                results[index] = BatchUserResult.conflict(index, "Email already exists: " + pendingUser.userDTO().getEmail());
+            } else {
+                insertableUsers.add(pendingUser);
+            }
+        }
+        if (insertableUsers.isEmpty()) {
+            return;
+        }
+
+        List<String> encodedPasswords = passwordEncoder.encodeAll(
+                insertableUsers.stream().map(pendingUser -> pendingUser.userDTO().getPassword()).toList());
+        List<User> newUsers = new ArrayList<>(insertableUsers.size());
+        for (int i = 0; i < insertableUsers.size(); i++) {
+            newUsers.add(toUser(insertableUsers.get(i), encodedPasswords.get(i)));
+        }
+
+        try {
+            List<User> savedUsers = transactionTemplate.execute(status -> {
+                List<User> saved = userRepository.saveAll(newUsers);
+                userRepository.flush();
+                return saved;
+            });
+            for (int i = 0; i < insertableUsers.size(); i++) {
+                recordCreated(insertableUsers.get(i).index(), savedUsers.get(i), results);
+            }
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Service - Batch insert clashed with a concurrent write, retrying {} users one by one", insertableUsers.size());
+            for (int i = 0; i < insertableUsers.size(); i++) {
+                insertOne(insertableUsers.get(i), encodedPasswords.get(i), results);
+            }
+        }
+    }
+
+    private void insertOne(PendingUser pendingUser, String encodedPassword, BatchUserResult[] results) {
+        int index = pendingUser.index();
+        User user = toUser(pendingUser, encodedPassword);
+        try {
+            User savedUser = transactionTemplate.execute(status -> userRepository.saveAndFlush(user));
+            recordCreated(index, savedUser, results);
+        } catch (DataIntegrityViolationException e) {
+            try {
+                PersistenceExceptionHandler.handleConstraintViolationExceptions(e);
+            } catch (ClashingUserException clash) {
+                results[index] = BatchUserResult.conflict(index, clash.getMessage());
+            } catch (IllegalArgumentException invalid) {
+                results[index] = BatchUserResult.invalid(index, invalid.getMessage());
+            }
+        }
+    }
+
+    private void recordCreated(int index, User savedUser, BatchUserResult[] results) {
+        results[index] = BatchUserResult.created(index, UserResponseMapper.toUserResponseDTO(savedUser));
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangeType.CREATED, savedUser.getId(), null,
+                savedUser.getUsername(), savedUser.getEmail(), savedUser.getTokenVersion()));
+    }
+
+    private User toUser(PendingUser pendingUser, String encodedPassword) {
+        UserDTO userDTO = pendingUser.userDTO();
+        return User.builder()
+                .username(userDTO.getUsername())
+                .email(userDTO.getEmail())
+                .password(encodedPassword)
+                .firstname(userDTO.getFirstname())
+                .lastname(userDTO.getLastname())
+                .roles(pendingUser.roles())
+                .build();
+    }
+
+    private record PendingUser(int index, UserDTO userDTO, Set<Role> roles) {
+    }
+}
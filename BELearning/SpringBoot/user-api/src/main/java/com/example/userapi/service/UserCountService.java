@@ -0,0 +1,24 @@
+package com.example.userapi.service;
+
+import com.example.userapi.dto.UserCountDTO;
+import com.example.userapi.dto.UserCountMode;
+
+public interface UserCountService {
+
+    /**
+     * Counts the users in the requested mode.
+     * An estimate that is not available, for example because the table has never been analyzed
+     * or the database is not PostgreSQL, is replaced by the maintained count.
+     *
+     * @param mode how the count is determined
+     * @return the count and the mode that produced it
+     */
+    UserCountDTO countUsers(UserCountMode mode);
+
+    /**
+     * Returns the maintained count without touching the database.
+     *
+     * @return the number of users
+     */
+    long getMaintainedCount();
+}
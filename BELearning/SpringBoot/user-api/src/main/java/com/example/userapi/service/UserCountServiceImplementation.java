@@ -0,0 +1,129 @@
+package com.example.userapi.service;
+
+import com.example.userapi.dto.UserCountDTO;
+import com.example.userapi.dto.UserCountMode;
+import com.example.userapi.event.UserChangeType;
+import com.example.userapi.event.UserChangedEvent;
+import com.example.userapi.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves user counts without scanning the users table on every call.
+ * The maintained counter is loaded with an exact count once, then moved by every committed create and delete,
+ * and resynchronized periodically to absorb writes made by other instances.
+ * The estimate is read from {@code pg_class.reltuples} in the background, on PostgreSQL only.
+ */
+@Service
+public class UserCountServiceImplementation implements UserCountService {
+
+    private static final long UNKNOWN = -1;
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private final UserRepository userRepository;
+    private final DataSource dataSource;
+    private final AtomicLong maintainedCount = new AtomicLong(UNKNOWN);
+    private volatile long estimatedCount = UNKNOWN;
+    // null until the database product has been read
+    private volatile Boolean estimateSupported;
+    private static final Logger logger = LoggerFactory.getLogger(UserCountServiceImplementation.class);
+
+    public UserCountServiceImplementation(UserRepository userRepository, DataSource dataSource) {
+        this.userRepository = userRepository;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public UserCountDTO countUsers(UserCountMode mode) {
+        return switch (mode) {
+            case EXACT -> new UserCountDTO(userRepository.countUsers(), UserCountMode.EXACT);
+            case ESTIMATED -> estimatedCount == UNKNOWN
+                    ? new UserCountDTO(getMaintainedCount(), UserCountMode.MAINTAINED)
+                    : new UserCountDTO(estimatedCount, UserCountMode.ESTIMATED);
+            case MAINTAINED -> new UserCountDTO(getMaintainedCount(), UserCountMode.MAINTAINED);
+        };
+    }
+
+    @Override
+    public long getMaintainedCount() {
+        long count = maintainedCount.get();
+        if (count == UNKNOWN) {
+            synchronized (maintainedCount) {
+                count = maintainedCount.get();
+                if (count == UNKNOWN) {
+                    count = userRepository.countUsers();
+                    maintainedCount.set(count);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Replaces the maintained count with an exact one.
+     * Creates and deletes committed while the count runs may be applied twice or not at all until the next run.
+     */
+    @Scheduled(initialDelayString = "${app.users.count.resync-interval:PT15M}",
+            fixedDelayString = "${app.users.count.resync-interval:PT15M}")
+    public void resynchronize() {
+        long count = userRepository.countUsers();
+        long previous = maintainedCount.getAndSet(count);
+        if (previous != UNKNOWN && previous != count) {
+            logger.info("Service - Maintained user count drifted from {} to {}", previous, count);
+        }
+    }
+
+    /**
+     * Reads the planner's row estimate, which PostgreSQL keeps current through autovacuum and ANALYZE.
+     */
+    @Scheduled(fixedDelayString = "${app.users.count.estimate-refresh-interval:PT1M}")
+    public void refreshEstimate() {
+        if (!isEstimateSupported()) {
+            return;
+        }
+        try {
+            estimatedCount = userRepository.estimateUserCount().filter(count -> count >= 0).orElse(UNKNOWN);
+        } catch (DataAccessException e) {
+            logger.debug("Service - Row estimate not available, serving the maintained count instead", e);
+            estimatedCount = UNKNOWN;
+        }
+    }
+
+    private boolean isEstimateSupported() {
+        Boolean supported = estimateSupported;
+        if (supported == null) {
+            try {
+                String databaseProduct = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+                supported = POSTGRESQL.equals(databaseProduct);
+                if (!supported) {
+                    logger.info("Service - No row estimate on {}, serving the maintained count instead", databaseProduct);
+                }
+                estimateSupported = supported;
+            } catch (MetaDataAccessException e) {
+                // try again on the next refresh
+                logger.debug("Service - Could not read the database product", e);
+                return false;
+            }
+        }
+        return supported;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == UserChangeType.CREATED) {
+            maintainedCount.updateAndGet(count -> count == UNKNOWN ? UNKNOWN : count + 1);
+        } else if (event.type() == UserChangeType.DELETED) {
+            maintainedCount.updateAndGet(count -> count == UNKNOWN ? UNKNOWN : count - 1);
+        }
+    }
+}
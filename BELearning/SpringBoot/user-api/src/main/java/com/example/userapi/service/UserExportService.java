@@ -0,0 +1,19 @@
+package com.example.userapi.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Service interface for exporting the full list of users.
+ */
+public interface UserExportService {
+
+    /**
+     * Writes every user as newline-delimited JSON to the output stream.
+     * Users are streamed from the database, so memory use does not grow with the number of users.
+     *
+     * @param outputStream the stream to write to
+     * @throws IOException if writing to the stream fails
+     */
+    void exportUsers(OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,74 @@
+package com.example.userapi.service;
+
+import com.example.userapi.dto.UserResponseMapper;
+import com.example.userapi.model.User;
+import com.example.userapi.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@Service
+public class UserExportServiceImplementation implements UserExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter userWriter;
+    private static final Logger logger = LoggerFactory.getLogger(UserExportServiceImplementation.class);
+
+    public UserExportServiceImplementation(UserRepository userRepository, EntityManager entityManager,
+                                           PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.userWriter = objectMapper.writer();
+    }
+
+    @Override
+    public void exportUsers(OutputStream outputStream) throws IOException {
+        logger.info("Service - Exporting all users");
+        BufferedOutputStream out = new BufferedOutputStream(outputStream, BUFFER_SIZE);
+        AtomicLong exported = new AtomicLong();
+        try {
+            // the database cursor behind the stream only stays open inside a transaction
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<User> users = userRepository.streamAll()) {
+                    users.forEach(user -> {
+                        writeLine(out, user);
+                        // drop the user from the persistence context so it can be garbage collected
+                        entityManager.detach(user);
+                        exported.incrementAndGet();
+                    });
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+        logger.info("Service - Exported {} users", exported.get());
+    }
+
+    private void writeLine(OutputStream out, User user) {
+        try {
+            out.write(userWriter.writeValueAsBytes(UserResponseMapper.toUserResponseDTO(user)));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.userapi.service;
+
+import com.example.userapi.dto.UserResponseDTO;
+import com.example.userapi.event.UserChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps serialized pages of the user list, so a repeated request is answered with the cached bytes
+ * without querying the database or running Jackson.
+ * Every key carries the data version it was built from, and every user write moves to a new version,
+ * so a page built before a write is never served after it. Memory is bounded by the total size of the
+ * cached bytes, and entries expire after a while to pick up writes made by other instances.
+ */
+@Component
+public class UserPageCache {
+
+    /**
+     * Cached for pages without users, the controller answers them with 204.
+     */
+    public static final byte[] EMPTY_PAGE = new byte[0];
+
+    private final AtomicLong dataVersion = new AtomicLong();
+    private final Cache<PageKey, byte[]> pages;
+    private final ObjectWriter pageWriter;
+
+    public UserPageCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                         @Value("${app.users.page-cache.max-bytes:67108864}") long maxBytes,
+                         @Value("${app.users.page-cache.ttl:PT30S}") Duration ttl) {
+        this.pageWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, UserResponseDTO.class));
+        this.pages = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((PageKey key, byte[] page) -> page.length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "userPages");
+        Gauge.builder("user.page.cache.hit.ratio", pages, cache -> cache.stats().hitRate())
+                .description("Share of user list requests served from the page cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the serialized page, loading and serializing it on a miss.
+     * Concurrent misses for the same page are loaded only once.
+     *
+     * @param pageable the requested page
+     * @param loader loads the users of the page
+     * @return the page as JSON bytes, or {@link #EMPTY_PAGE} if it has no users
+     */
+    public byte[] getPage(Pageable pageable, Supplier<List<UserResponseDTO>> loader) {
+        PageKey key = new PageKey(dataVersion.get(), pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSort().toString());
+        return pages.get(key, k -> serialize(loader.get()));
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        dataVersion.incrementAndGet();
+        // pages of older versions can no longer be hit, release their memory right away
+        pages.invalidateAll();
+    }
+
+    private byte[] serialize(List<UserResponseDTO> users) {
+        if (users.isEmpty()) {
+            return EMPTY_PAGE;
+        }
+        try {
+            return pageWriter.writeValueAsBytes(users);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record PageKey(long dataVersion, int page, int size, String sort) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.userapi.service;
+
+import com.example.userapi.dto.UserResponseDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking, read-only queries over users.
+ * Writes stay on {@link UserService}, this service only serves lookups.
+ */
+public interface UserQueryService {
+
+    /**
+     * Retrieves a user by their unique identifier.
+     *
+     * @param id the ID of the user
+     * @return a {@code Mono} emitting the user, or completing empty if not found
+     */
+    Mono<UserResponseDTO> getUserById(Long id);
+
+    /**
+     * Retrieves a user by their username.
+     *
+     * @param username the username of the user
+     * @return a {@code Mono} emitting the user, or completing empty if not found
+     */
+    Mono<UserResponseDTO> getUserByUsername(String username);
+
+    /**
+     * Retrieves the users following the given ID, ordered by ID.
+     *
+     * @param afterId the ID of the last user of the previous page, or {@code null} for the first page
+     * @param limit the maximum number of users to return
+     * @return a {@code Flux} emitting the users with an ID greater than {@code afterId}
+     */
+    Flux<UserResponseDTO> getUsersAfter(Long afterId, int limit);
+}
@@ -1,10 +1,14 @@
 package com.example.userapi.service;
 
+import java.util.List;
 import java.util.Optional;
 
 import com.example.userapi.dto.PatchUserDTO;
 import com.example.userapi.dto.UserDTO;
+import com.example.userapi.dto.UserResponseDTO;
+import com.example.userapi.dto.UserSearchMode;
 import com.example.userapi.exception.ClashingUserException;
+import com.example.userapi.exception.PreconditionFailedException;
 import com.example.userapi.exception.UserNotFoundException;
 import com.example.userapi.model.User;
 import org.hibernate.exception.ConstraintViolationException;
@@ -25,6 +29,38 @@ public interface UserService {
      */
     Page<User> getUsers(Pageable pageable);
 
+    /**
+     * Retrieves a page of users ready to be returned to clients.
+     * Built from a projection of the users and one query for all of their roles,
+     * without loading managed entities and without a count query.
+     *
+     * @param pageable the page to retrieve
+     * @return the users of the page
+     */
+    List<UserResponseDTO> getUserSummaries(Pageable pageable);
+
+    /**
+     * Searches users by username, email, first name and last name, ignoring case.
+     *
+     * @param query the text to search for
+     * @param mode whether the fields must start with or contain the text
+     * @param pageable the page to retrieve
+     * @return the matching users of the page
+     * @throws IllegalArgumentException if the text has fewer than 3 characters
+     */
+    List<UserResponseDTO> searchUsers(String query, UserSearchMode mode, Pageable pageable);
+
+    /**
+     * Retrieves the users following the given ID, ordered by ID.
+     * Uses keyset pagination, so the cost of a page does not depend on how deep it is
+     * and no count query is issued.
+     *
+     * @param afterId the ID of the last user of the previous page, or {@code null} for the first page
+     * @param limit the maximum number of users to return
+     * @return the users with an ID greater than {@code afterId}
+     */
+    List<User> getUsersAfter(Long afterId, int limit);
+
     /**
      * Retrieves a user by their unique identifier.
      *
@@ -33,6 +69,14 @@ public interface UserService {
      */
     Optional<User> getUserById(Long id);
 
+    /**
+     * Retrieves the current version of a user without loading the user.
+     *
+     * @param id the ID of the user
+     * @return an Optional containing the version if the user exists, or empty if not found
+     */
+    Optional<Long> getUserVersion(Long id);
+
     /**
      * Retrieves a user by their username.
      *
@@ -77,6 +121,19 @@ public interface UserService {
      */
     User updateUser(UserDTO user, Long id) throws ClashingUserException, UserNotFoundException;
 
+    /**
+     * Updates an existing user in the repository if it is still at the expected version.
+     *
+     * @param user the user to update
+     * @param id the user id
+     * @param expectedVersion the version the client last saw, or {@code null} to update unconditionally
+     * @return the updated user entity
+     * @throws ClashingUserException if a user with the same username or email already exists
+     * @throws UserNotFoundException if the user with the specified ID does not exist
+     * @throws PreconditionFailedException if the user has been modified since the expected version
+     */
+    User updateUser(UserDTO user, Long id, Long expectedVersion) throws ClashingUserException, UserNotFoundException;
+
     /**
      * Patches an existing user in the repository.
      * This method allows partial updates to a user.
@@ -93,6 +150,19 @@ public interface UserService {
      */
     User patchUser(Long id, PatchUserDTO patchUserDTO) throws ClashingUserException, UserNotFoundException;
 
+    /**
+     * Patches an existing user in the repository if it is still at the expected version.
+     *
+     * @param id the ID of the user to patch
+     * @param patchUserDTO the DTO containing the fields to update
+     * @param expectedVersion the version the client last saw, or {@code null} to patch unconditionally
+     * @return the updated user entity
+     * @throws ClashingUserException if a user with the same username or email already exists
+     * @throws UserNotFoundException if the user with the specified ID does not exist
+     * @throws PreconditionFailedException if the user has been modified since the expected version
+     */
+    User patchUser(Long id, PatchUserDTO patchUserDTO, Long expectedVersion) throws ClashingUserException, UserNotFoundException;
+
     /**
      * Deletes a user by their unique identifier.
      *
@@ -2,43 +2,115 @@ package com.example.userapi.service;
 
 import com.example.userapi.dto.PatchUserDTO;
 import com.example.userapi.dto.UserDTO;
+import com.example.userapi.dto.UserResponseDTO;
+import com.example.userapi.dto.UserResponseMapper;
+import com.example.userapi.dto.UserSearchMode;
+import com.example.userapi.event.UserChangeType;
+import com.example.userapi.event.UserChangedEvent;
 import com.example.userapi.exception.ClashingUserException;
 import com.example.userapi.exception.PersistenceExceptionHandler;
+import com.example.userapi.exception.PreconditionFailedException;
 import com.example.userapi.exception.UserNotFoundException;
 import com.example.userapi.model.Role;
-import com.example.userapi.repository.RoleRepository;
 import com.example.userapi.repository.UserRepository;
+import com.example.userapi.repository.projection.UserRoleName;
+import com.example.userapi.repository.projection.UserSummary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import com.example.userapi.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 
 @Service
 public class UserServiceImplementation implements UserService {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserCountService userCountService;
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImplementation.class);
+    // shorter texts have no trigram to look up, so they could only be answered by a table scan
+    private static final int MIN_SEARCH_LENGTH = 3;
+    private static final Pattern LIKE_SPECIAL_CHARACTERS = Pattern.compile("[\\\\%_]");
 
-    public UserServiceImplementation(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImplementation(UserRepository userRepository, RoleRegistry roleRegistry, PasswordEncoder passwordEncoder,
+                                     ApplicationEventPublisher eventPublisher, UserCountService userCountService) {
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.userCountService = userCountService;
     }
 
     @Override
     public Page<User> getUsers(Pageable pageable) {
         logger.info("Service - Fetching all users with pagination: {}", pageable);
-        return userRepository.findAll(pageable);
+        // the total comes from the maintained counter instead of a COUNT query per page
+        return PageableExecutionUtils.getPage(userRepository.findPage(pageable), pageable,
+                userCountService::getMaintainedCount);
+    }
+
+    @Override
+    public List<UserResponseDTO> getUserSummaries(Pageable pageable) {
+        logger.info("Service - Fetching user summaries with pagination: {}", pageable);
+        return toUserResponseDTOs(userRepository.findSummaries(pageable));
+    }
+
+    @Override
+    public List<UserResponseDTO> searchUsers(String query, UserSearchMode mode, Pageable pageable) {
+        String text = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (text.length() < MIN_SEARCH_LENGTH) {
+            throw new IllegalArgumentException("Search text must have at least " + MIN_SEARCH_LENGTH + " characters");
+        }
+        logger.info("Service - Searching users, mode: {}, query: {}, pagination: {}", mode, text, pageable);
+        String escaped = LIKE_SPECIAL_CHARACTERS.matcher(text).replaceAll("\\\\$0");
+        String pattern = mode == UserSearchMode.CONTAINS ? "%" + escaped + "%" : escaped + "%";
+        return toUserResponseDTOs(userRepository.searchSummaries(pattern, pageable));
+    }
+
+    /**
+     * Completes user projections with their roles, loaded for the whole list in one query.
+     *
+     * @param userSummaries the users to convert
+     * @return the users ready to be returned to clients, in the same order
+     */
+    private List<UserResponseDTO> toUserResponseDTOs(List<UserSummary> userSummaries) {
+        if (userSummaries.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> userIds = userSummaries.stream().map(UserSummary::getId).toList();
+        Map<Long, Set<String>> roleNamesByUserId = new HashMap<>();
+        for (UserRoleName userRoleName : userRepository.findRoleNamesByUserIds(userIds)) {
+            roleNamesByUserId.computeIfAbsent(userRoleName.getUserId(), id -> new HashSet<>()).add(userRoleName.getRoleName());
+        }
+
+        return userSummaries.stream()
+                .map(userSummary -> UserResponseMapper.toUserResponseDTO(userSummary,
+                        roleNamesByUserId.getOrDefault(userSummary.getId(), Set.of())))
+                .toList();
+    }
+
+    @Override
+    public List<User> getUsersAfter(Long afterId, int limit) {
+        logger.info("Service - Fetching {} users after ID: {}", limit, afterId);
+        return userRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId, Limit.of(limit));
     }
 
     @Override
@@ -47,6 +119,11 @@ public class UserServiceImplementation implements UserService {
         return userRepository.findById(id);
     }
 
+    @Override
+    public Optional<Long> getUserVersion(Long id) {
+        return userRepository.findVersionById(id);
+    }
+
     @Override
     public Optional<User> getUserByUsername(String username) {
         logger.info("Service - Fetching user with username: {}", username);
@@ -68,6 +145,7 @@ public class UserServiceImplementation implements UserService {
             User userToAdd = fromDTO(user, userRoles);
             logger.info("Service - Attempting to save new user: {}", user.getUsername());
             newUser = userRepository.save(userToAdd);
+            publishChange(UserChangeType.CREATED, null, newUser);
         } catch (DataIntegrityViolationException e){
             PersistenceExceptionHandler.handleConstraintViolationExceptions(e);
         }
@@ -76,6 +154,11 @@ public class UserServiceImplementation implements UserService {
 
     @Override
     public User updateUser(UserDTO user, Long id) throws UserNotFoundException, ClashingUserException{
+        return updateUser(user, id, null);
+    }
+
+    @Override
+    public User updateUser(UserDTO user, Long id, Long expectedVersion) throws UserNotFoundException, ClashingUserException {
         User updatedUser = null;
         try {
             Set<Role> userRoles = getRolesFromDTO(user.getRoles());
@@ -86,11 +169,15 @@ public class UserServiceImplementation implements UserService {
                         logger.warn("User with ID: {} not found for update", id);
                         return new UserNotFoundException("User with ID: " + id + " not found for update.");
                     });
+            checkVersion(userToUpdate, expectedVersion);
 
+            String previousUsername = userToUpdate.getUsername();
             updateUserFields(updateReqUser, userToUpdate);
+            userToUpdate.setTokenVersion(userToUpdate.getTokenVersion() + 1);
 
             logger.info("Service - Attempting to update user with ID: {}", id);
             updatedUser = userRepository.save(userToUpdate);
+            publishChange(UserChangeType.UPDATED, previousUsername, updatedUser);
         }
         catch (DataIntegrityViolationException e) {
             PersistenceExceptionHandler.handleConstraintViolationExceptions(e);
@@ -100,15 +187,26 @@ public class UserServiceImplementation implements UserService {
 
     @Override
     public User patchUser(Long id, PatchUserDTO patchUserDTO) throws UserNotFoundException, ClashingUserException {
+        return patchUser(id, patchUserDTO, null);
+    }
+
+    @Override
+    public User patchUser(Long id, PatchUserDTO patchUserDTO, Long expectedVersion) throws UserNotFoundException, ClashingUserException {
         User patchedUser = null;
         try {
             User userToUpdate = userRepository.findById(id)
                     .orElseThrow(() -> new UserNotFoundException("User with ID: " + id + " not found for patch."));
+            checkVersion(userToUpdate, expectedVersion);
 
+            String previousUsername = userToUpdate.getUsername();
             patchUserFromDTO(patchUserDTO, userToUpdate);
+            if (patchUserDTO.getUsername() != null || patchUserDTO.getPassword() != null || patchUserDTO.getRoles() != null) {
+                userToUpdate.setTokenVersion(userToUpdate.getTokenVersion() + 1);
+            }
 
             logger.info("Service - Patching user with ID: {}", id);
             patchedUser = userRepository.save(userToUpdate);
+            publishChange(UserChangeType.PATCHED, previousUsername, patchedUser);
         }
         catch (DataIntegrityViolationException e) {
             PersistenceExceptionHandler.handleConstraintViolationExceptions(e);
@@ -118,12 +216,14 @@ public class UserServiceImplementation implements UserService {
 
     @Override
     public void deleteUser(Long id) throws UserNotFoundException {
-        if (!userRepository.existsById(id)) {
-            logger.warn("User with ID: {} not found for deletion", id);
-            throw new UserNotFoundException("User with ID: " + id + " not found for deletion.");
-        }
+        User userToDelete = userRepository.findById(id)
+                .orElseThrow(() -> {
+                    logger.warn("User with ID: {} not found for deletion", id);
+                    return new UserNotFoundException("User with ID: " + id + " not found for deletion.");
+                });
         logger.info("Service - Deleting user with ID: {}", id);
-        userRepository.deleteById(id);
+        userRepository.delete(userToDelete);
+        publishChange(UserChangeType.DELETED, null, userToDelete);
     }
 
     @Override
@@ -132,6 +232,33 @@ public class UserServiceImplementation implements UserService {
         return userRepository.countUsers();
     }
 
+    /**
+     * Rejects a conditional write to a user that has changed since the client read it.
+     * A write racing between this check and the save is rejected by the optimistic lock on the version column.
+     *
+     * @param user the user as loaded from the repository
+     * @param expectedVersion the version the client last saw, or {@code null} to skip the check
+     * @throws PreconditionFailedException if the versions differ
+     */
+    private void checkVersion(User user, Long expectedVersion) {
+        if (expectedVersion != null && user.getVersion() != expectedVersion) {
+            logger.warn("User with ID: {} is at version {}, expected {}", user.getId(), user.getVersion(), expectedVersion);
+            throw new PreconditionFailedException("User with ID: " + user.getId() + " has been modified.");
+        }
+    }
+
+    /**
+     * Publishes a {@link UserChangedEvent} for a user that has been written to the repository.
+     *
+     * @param type the kind of write
+     * @param previousUsername the username before the write, or {@code null} if it is not relevant
+     * @param user the user as written to the repository
+     */
+    private void publishChange(UserChangeType type, String previousUsername, User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(type, user.getId(), previousUsername,
+                user.getUsername(), user.getEmail(), user.getTokenVersion()));
+    }
+
     /**
      * Updates the fields of the target user with the values from the source user.
      *
@@ -177,11 +304,7 @@ public class UserServiceImplementation implements UserService {
      * @throws IllegalArgumentException if any role name does not exist in the repository
      */
     private Set<Role> getRolesFromDTO(Set<String> roleNames) {
-        Set<Role> userRoles = roleNames.stream()
-                .map(roleName -> roleRepository.findById(roleName)
-                        .orElseThrow(() -> new IllegalArgumentException("Role Not Found: " + roleName)))
-                .collect(Collectors.toSet());
-        return userRoles;
+        return roleRegistry.resolve(roleNames);
     }
 
     /**
@@ -0,0 +1,105 @@
+package com.example.userapi.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings.
+ * {@link #mightContain} never returns false for a value that was added, and returns true for a value
+ * that was not added with roughly the false positive probability the filter was sized for.
+ * Values cannot be removed. Bits are set with compare-and-set, so concurrent adds and lookups need no locking.
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Creates a filter sized for the given number of values and false positive probability.
+     *
+     * @param expectedInsertions the number of values the filter is expected to hold
+     * @param falsePositiveProbability the accepted false positive probability once full, between 0 and 1
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("False positive probability must be between 0 and 1: " + falsePositiveProbability);
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (LN2 * LN2));
+        int wordCount = Math.toIntExact(Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * LN2));
+    }
+
+    public void put(String value) {
+        long hash = hash(value);
+        long hash1 = mix(hash);
+        long hash2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            setBit(Math.floorMod(hash1 + i * hash2, bitCount));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long hash1 = mix(hash);
+        long hash2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private void setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(index, word, word | mask));
+    }
+
+    /**
+     * FNV-1a over the UTF-16 characters of the value.
+     */
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Finalizer of MurmurHash3, spreads every input bit over the whole word.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.userapi.util;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free, multi-producer multi-consumer queue (Dmitry Vyukov's ring buffer).
+ * Every slot carries a sequence number telling whether it is free for the producer of a given
+ * position or filled for the consumer of that position, so producers and consumers only contend
+ * on a compare-and-set of their own position and never on each other. The slots are preallocated;
+ * offering to a full buffer fails instead of blocking or growing.
+ *
+ * @param <E> the type of the elements
+ */
+public class MpmcRingBuffer<E> {
+
+    private final int mask;
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    private final AtomicLong dequeuePosition = new AtomicLong();
+
+    /**
+     * @param capacity the number of slots, a power of two
+     */
+    public MpmcRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two of at least 2: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.elements = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if a slot is free.
+     *
+     * @param element the element to add
+     * @return true if the element was added, false if the buffer is full
+     */
+    public boolean offer(E element) {
+        Objects.requireNonNull(element, "element");
+        long position = enqueuePosition.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    // publishes the element to the consumer reading the sequence
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = enqueuePosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = enqueuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element.
+     *
+     * @return the element, or null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long position = dequeuePosition.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    E element = (E) elements[index];
+                    elements[index] = null;
+                    // hands the slot to the producer of the next lap
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+                position = dequeuePosition.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = dequeuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Returns the oldest element without removing it. Another consumer may remove it at any time,
+     * so the result is only suited for monitoring.
+     *
+     * @return the oldest element, or null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        long position = dequeuePosition.get();
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        return (E) elements[index];
+    }
+
+    /**
+     * Moves up to {@code maxElements} elements to the collection.
+     *
+     * @return the number of elements moved
+     */
+    public int drainTo(Collection<? super E> collection, int maxElements) {
+        int drained = 0;
+        E element;
+        while (drained < maxElements && (element = poll()) != null) {
+            collection.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * @return the number of elements, exact only while no producer or consumer is active
+     */
+    public int size() {
+        long size = enqueuePosition.get() - dequeuePosition.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
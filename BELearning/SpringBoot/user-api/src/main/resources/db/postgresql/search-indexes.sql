@@ -0,0 +1,9 @@
+-- Trigram indexes backing GET /api/v1/users/search.
+-- They serve both prefix (LIKE 'abc%') and substring (LIKE '%abc%') matching on the lower-cased columns,
+-- and are built concurrently so existing tables stay writable while they are created.
+-- A pattern needs at least 3 characters to contain a trigram, which is why searches require 3 characters.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_users_username_trgm ON users USING gin (lower(username) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_users_email_trgm ON users USING gin (lower(email) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_users_firstname_trgm ON users USING gin (lower(firstname) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_users_lastname_trgm ON users USING gin (lower(lastname) gin_trgm_ops);
@@ -0,0 +1,13 @@
+package com.example.userapi.integration.loadtest;
+
+/**
+ * The requests issued by the load test.
+ */
+public enum LoadTestOperation {
+    SIGNIN,
+    REGISTER,
+    LIST,
+    PUT,
+    PATCH,
+    DELETE
+}
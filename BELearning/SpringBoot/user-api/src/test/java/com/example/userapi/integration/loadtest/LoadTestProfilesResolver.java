@@ -0,0 +1,26 @@
+package com.example.userapi.integration.loadtest;
+
+import org.springframework.test.context.ActiveProfilesResolver;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Activates the {@code loadtest} profile plus the comma separated profiles of the {@code loadtest.profiles}
+ * system property, e.g. {@code -Dloadtest.profiles=virtual-threads}, so the same workload can be compared
+ * across application profiles.
+ */
+public class LoadTestProfilesResolver implements ActiveProfilesResolver {
+
+    @Override
+    public String[] resolve(Class<?> testClass) {
+        List<String> profiles = new ArrayList<>(List.of("loadtest"));
+        for (String profile : StringUtils.commaDelimitedListToStringArray(System.getProperty("loadtest.profiles", ""))) {
+            if (StringUtils.hasText(profile)) {
+                profiles.add(profile.trim());
+            }
+        }
+        return profiles.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.userapi.integration.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the latency and outcome of every request of a load test run.
+ * In an open workload latencies are measured from the time a request was scheduled to be sent, so queueing on
+ * an overloaded server shows up in the percentiles instead of lowering the send rate. In a closed workload
+ * they are measured from the time the request was sent.
+ */
+public class LoadTestReport {
+
+    private static final long MAX_TRACKED_LATENCY = TimeUnit.MINUTES.toNanos(5);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<LoadTestOperation, Histogram> latencies = new EnumMap<>(LoadTestOperation.class);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    public LoadTestReport() {
+        for (LoadTestOperation operation : LoadTestOperation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(MAX_TRACKED_LATENCY, 3));
+        }
+    }
+
+    /**
+     * Records a request that received a response.
+     *
+     * @param operation the kind of request
+     * @param status the HTTP status of the response
+     * @param latencyNanos the time from the scheduled or actual send time to the response
+     */
+    public void record(LoadTestOperation operation, int status, long latencyNanos) {
+        latencies.get(operation).recordValue(Math.min(latencyNanos, MAX_TRACKED_LATENCY));
+        count(operation, String.valueOf(status));
+    }
+
+    /**
+     * Records a request that failed without a response, or was never sent.
+     *
+     * @param operation the kind of request
+     * @param reason a short description of the failure
+     */
+    public void recordFailure(LoadTestOperation operation, String reason) {
+        count(operation, reason);
+    }
+
+    public String format(Duration elapsed) {
+        StringBuilder report = new StringBuilder();
+        long totalRequests = 0;
+        long totalErrors = 0;
+        Map<String, Long> errors = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> outcome : outcomes.entrySet()) {
+            long count = outcome.getValue().sum();
+            totalRequests += count;
+            if (!outcome.getKey().split(" ")[1].startsWith("2")) {
+                totalErrors += count;
+                errors.put(outcome.getKey(), count);
+            }
+        }
+        double seconds = elapsed.toNanos() / 1e9;
+        report.append(String.format("Duration %.1f s, %d requests, %.1f req/s, %d errors (%.2f%%)%n%n",
+                seconds, totalRequests, totalRequests / seconds, totalErrors,
+                totalRequests == 0 ? 0.0 : 100.0 * totalErrors / totalRequests));
+
+        report.append(String.format("%-10s %8s %9s", "operation", "count", "req/s"));
+        for (double percentile : PERCENTILES) {
+            report.append(String.format(" %9s", "p" + formatPercentile(percentile)));
+        }
+        report.append(String.format(" %9s%n", "max"));
+        for (Map.Entry<LoadTestOperation, Histogram> entry : latencies.entrySet()) {
+            Histogram histogram = entry.getValue();
+            report.append(String.format("%-10s %8d %9.1f", entry.getKey(), histogram.getTotalCount(),
+                    histogram.getTotalCount() / seconds));
+            for (double percentile : PERCENTILES) {
+                report.append(String.format(" %9s", millis(histogram.getValueAtPercentile(percentile))));
+            }
+            report.append(String.format(" %9s%n", millis(histogram.getMaxValue())));
+        }
+        report.append("(latencies in ms)\n");
+
+        if (!errors.isEmpty()) {
+            report.append("\nErrors\n");
+            errors.forEach((outcome, count) -> report.append(String.format("%-30s %8d%n", outcome, count)));
+        }
+        return report.toString();
+    }
+
+    private void count(LoadTestOperation operation, String outcome) {
+        outcomes.computeIfAbsent(operation + " " + outcome, key -> new LongAdder()).increment();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1e6);
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.floor(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.userapi.integration.loadtest;
+
+import com.example.userapi.model.Role;
+import com.example.userapi.model.User;
+import com.example.userapi.repository.RoleRepository;
+import com.example.userapi.repository.UserRepository;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Fills the database before a load test run.
+ * All seeded users share one password, which is hashed once so seeding large populations stays fast.
+ */
+public class LoadTestSeeder {
+
+    public static final String PASSWORD = "LoadTest#1";
+    public static final String ADMIN_USERNAME = "loadtest-admin";
+    public static final String CLIENT_USERNAME = "loadtest-client";
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int ADMIN_EVERY = 10;
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    public LoadTestSeeder(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    /**
+     * Creates the roles, the accounts used by the load generator itself and the user population.
+     * Every tenth user is an administrator.
+     *
+     * @param users the number of users that are read, updated and signed in during the run
+     * @param deletableUsers the number of additional users reserved for delete requests
+     * @return the seeded users
+     */
+    public SeededUsers seed(int users, int deletableUsers) {
+        Role userRole = roleRepository.save(role("USER"));
+        Role adminRole = roleRepository.save(role("ADMIN"));
+        String encodedPassword = passwordEncoder.encode(PASSWORD);
+
+        userRepository.save(user(ADMIN_USERNAME, encodedPassword, Set.of(adminRole, userRole)));
+        userRepository.save(user(CLIENT_USERNAME, encodedPassword, Set.of(userRole)));
+
+        List<SeededUser> activeUsers = new ArrayList<>(users);
+        Deque<Long> deletableIds = new ConcurrentLinkedDeque<>();
+        List<User> chunk = new ArrayList<>(CHUNK_SIZE);
+        int total = users + deletableUsers;
+        for (int i = 0; i < total; i++) {
+            Set<Role> roles = i % ADMIN_EVERY == 0 ? Set.of(adminRole, userRole) : Set.of(userRole);
+            chunk.add(user("seed" + i, encodedPassword, roles));
+            if (chunk.size() == CHUNK_SIZE || i == total - 1) {
+                for (User saved : userRepository.saveAll(chunk)) {
+                    if (activeUsers.size() < users) {
+                        activeUsers.add(new SeededUser(saved.getId(), saved.getUsername(), saved.getEmail()));
+                    } else {
+                        deletableIds.add(saved.getId());
+                    }
+                }
+                chunk.clear();
+            }
+        }
+        return new SeededUsers(activeUsers, deletableIds);
+    }
+
+    private static Role role(String name) {
+        Role role = new Role();
+        role.setName(name);
+        return role;
+    }
+
+    private static User user(String username, String encodedPassword, Set<Role> roles) {
+        return User.builder()
+                .username(username)
+                .email(username + "@loadtest.example.com")
+                .password(encodedPassword)
+                .firstname("Load")
+                .lastname("Test")
+                .roles(roles)
+                .build();
+    }
+
+    public record SeededUser(long id, String username, String email) {
+    }
+
+    public record SeededUsers(List<SeededUser> activeUsers, Deque<Long> deletableIds) {
+    }
+}
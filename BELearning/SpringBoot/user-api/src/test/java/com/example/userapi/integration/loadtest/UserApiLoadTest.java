@@ -0,0 +1,297 @@
+package com.example.userapi.integration.loadtest;
+
+import com.example.userapi.dto.PatchUserDTO;
+import com.example.userapi.dto.UserDTO;
+import com.example.userapi.dto.auth.SignInRequest;
+import com.example.userapi.dto.auth.SignInResponse;
+import com.example.userapi.integration.loadtest.LoadTestSeeder.SeededUser;
+import com.example.userapi.integration.loadtest.LoadTestSeeder.SeededUsers;
+import com.example.userapi.repository.RoleRepository;
+import com.example.userapi.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Drives a weighted mix of auth and user requests against the running application.
+ * In the default open mode requests are sent at a fixed rate regardless of how fast the previous ones complete,
+ * so a saturated server shows up as growing latency rather than as a lower send rate.
+ * In the closed mode ({@code loadtest.mode=closed}) a fixed number of clients each send a request, wait for its
+ * response and send the next one, which measures the throughput the server sustains at that concurrency;
+ * the run is repeated for every client count in {@code loadtest.clients}.
+ * Run with {@code mvn -Ploadtest test}; the workload is configured in {@code application-loadtest.properties}
+ * and {@code -Dloadtest.profiles=virtual-threads} runs the application under additional profiles.
+ */
+@Tag("loadtest")
+@ActiveProfiles(resolver = LoadTestProfilesResolver.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class UserApiLoadTest {
+
+    private static final int PAGE_SIZE = 20;
+    private static final long RANDOM_SEED = 42L;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private Environment environment;
+
+    @Value("${loadtest.mode}")
+    private String mode;
+    @Value("${loadtest.users}")
+    private int users;
+    @Value("${loadtest.rate}")
+    private int rate;
+    @Value("${loadtest.duration}")
+    private Duration duration;
+    @Value("${loadtest.max-in-flight}")
+    private int maxInFlight;
+    @Value("${loadtest.clients}")
+    private int[] clients;
+    @Value("${loadtest.mix.signin}")
+    private int signinWeight;
+    @Value("${loadtest.mix.register}")
+    private int registerWeight;
+    @Value("${loadtest.mix.list}")
+    private int listWeight;
+    @Value("${loadtest.mix.put}")
+    private int putWeight;
+    @Value("${loadtest.mix.patch}")
+    private int patchWeight;
+    @Value("${loadtest.mix.delete}")
+    private int deleteWeight;
+    @Value("${loadtest.report}")
+    private Path reportFile;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Random random = new Random(RANDOM_SEED);
+    private SeededUsers seededUsers;
+    private String clientToken;
+    private String adminToken;
+    private final AtomicInteger registered = new AtomicInteger();
+
+    @Test
+    void run() throws Exception {
+        int[] weights = {signinWeight, registerWeight, listWeight, putWeight, patchWeight, deleteWeight};
+        int totalWeight = 0;
+        for (int weight : weights) {
+            totalWeight += weight;
+        }
+        boolean closed = "closed".equals(mode);
+        // the closed workload has no target rate, loadtest.rate then only sizes the delete targets
+        long expectedRequests = closed ? (long) rate * duration.toSeconds() * clients.length : rate * duration.toSeconds();
+        // enough delete targets for the whole run, plus one second of slack for random variation
+        int deletableUsers = (int) (expectedRequests * deleteWeight / totalWeight) + rate;
+        seededUsers = new LoadTestSeeder(userRepository, roleRepository, passwordEncoder).seed(users, deletableUsers);
+        clientToken = signIn(LoadTestSeeder.CLIENT_USERNAME);
+        adminToken = signIn(LoadTestSeeder.ADMIN_USERNAME);
+
+        String summary = "Profiles: " + String.join(", ", environment.getActiveProfiles()) + System.lineSeparator()
+                + (closed ? runClosed(weights, totalWeight) : runOpen(weights, totalWeight));
+        System.out.println(summary);
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        Files.writeString(reportFile, summary);
+    }
+
+    private String runOpen(int[] weights, int totalWeight) throws Exception {
+        LoadTestReport report = new LoadTestReport();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long scheduled = start; scheduled < end; scheduled += intervalNanos) {
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadTestOperation operation = next(weights, totalWeight);
+            if (!inFlight.tryAcquire()) {
+                report.recordFailure(operation, "dropped");
+                continue;
+            }
+            send(operation, scheduled, report, inFlight);
+        }
+        boolean drained = inFlight.tryAcquire(maxInFlight, 1, TimeUnit.MINUTES);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        assertThat("all requests completed", drained, is(true));
+        return String.format("Load test: %d users, target %d req/s%n", users, rate) + report.format(elapsed);
+    }
+
+    /**
+     * Runs the closed workload once per client count, each client on its own virtual thread.
+     */
+    private String runClosed(int[] weights, int totalWeight) {
+        StringBuilder summary = new StringBuilder();
+        for (int clientCount : clients) {
+            LoadTestReport report = new LoadTestReport();
+            long start = System.nanoTime();
+            long end = start + duration.toNanos();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < clientCount; i++) {
+                    executor.submit(() -> {
+                        while (System.nanoTime() - end < 0) {
+                            LoadTestOperation operation = next(weights, totalWeight);
+                            long sent = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = httpClient.send(request(operation),
+                                        HttpResponse.BodyHandlers.discarding());
+                                report.record(operation, response.statusCode(), System.nanoTime() - sent);
+                            } catch (IOException e) {
+                                report.recordFailure(operation, e.getClass().getSimpleName());
+                            }
+                        }
+                        return null;
+                    });
+                }
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            summary.append(String.format("Closed load test: %d users, %d clients%n", users, clientCount))
+                    .append(report.format(elapsed))
+                    .append(System.lineSeparator());
+        }
+        return summary.toString();
+    }
+
+    private LoadTestOperation next(int[] weights, int totalWeight) {
+        LoadTestOperation operation = pick(weights, totalWeight);
+        if (operation == LoadTestOperation.DELETE && seededUsers.deletableIds().isEmpty()) {
+            return LoadTestOperation.LIST;
+        }
+        return operation;
+    }
+
+    private LoadTestOperation pick(int[] weights, int totalWeight) {
+        int value = random.nextInt(totalWeight);
+        LoadTestOperation[] operations = LoadTestOperation.values();
+        for (int i = 0; i < weights.length; i++) {
+            value -= weights[i];
+            if (value < 0) {
+                return operations[i];
+            }
+        }
+        return LoadTestOperation.LIST;
+    }
+
+    private void send(LoadTestOperation operation, long scheduled, LoadTestReport report, Semaphore inFlight)
+            throws IOException {
+        httpClient.sendAsync(request(operation), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    if (failure != null) {
+                        report.recordFailure(operation, failure.getClass().getSimpleName());
+                    } else {
+                        report.record(operation, response.statusCode(), System.nanoTime() - scheduled);
+                    }
+                    inFlight.release();
+                });
+    }
+
+    private HttpRequest request(LoadTestOperation operation) throws IOException {
+        List<SeededUser> activeUsers = seededUsers.activeUsers();
+        SeededUser user = activeUsers.get(random.nextInt(activeUsers.size()));
+        return switch (operation) {
+            case SIGNIN -> post("/api/v1/auth/signin", signInRequest(user.username()), null);
+            case REGISTER -> {
+                String username = "registered" + registered.getAndIncrement();
+                yield post("/api/v1/auth/register", userDTO(username, username + "@loadtest.example.com"), null);
+            }
+            case LIST -> builder("/api/v1/users?page=" + random.nextInt(Math.max(users / PAGE_SIZE, 1))
+                    + "&size=" + PAGE_SIZE, clientToken).GET().build();
+            case PUT -> builder("/api/v1/users/" + user.id(), clientToken)
+                    .PUT(json(userDTO(user.username(), user.email()))).build();
+            case PATCH -> {
+                PatchUserDTO patchUserDTO = new PatchUserDTO();
+                patchUserDTO.setFirstname("Patched" + random.nextInt(1000));
+                yield builder("/api/v1/users/" + user.id(), clientToken)
+                        .method("PATCH", json(patchUserDTO)).build();
+            }
+            case DELETE -> {
+                Long id = seededUsers.deletableIds().poll();
+                // another client took the last delete target
+                yield id == null ? request(LoadTestOperation.LIST)
+                        : builder("/api/v1/users/" + id, adminToken).DELETE().build();
+            }
+        };
+    }
+
+    private String signIn(String username) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(post("/api/v1/auth/signin", signInRequest(username), null),
+                HttpResponse.BodyHandlers.ofString());
+        return objectMapper.readValue(response.body(), SignInResponse.class).getToken();
+    }
+
+    private HttpRequest post(String path, Object body, String token) throws IOException {
+        return builder(path, token).POST(json(body)).build();
+    }
+
+    private HttpRequest.Builder builder(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) throws IOException {
+        return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+    }
+
+    private static SignInRequest signInRequest(String username) {
+        SignInRequest signInRequest = new SignInRequest();
+        signInRequest.setUsername(username);
+        signInRequest.setPassword(LoadTestSeeder.PASSWORD);
+        return signInRequest;
+    }
+
+    private static UserDTO userDTO(String username, String email) {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setUsername(username);
+        userDTO.setEmail(email);
+        userDTO.setPassword(LoadTestSeeder.PASSWORD);
+        userDTO.setFirstname("Load");
+        userDTO.setLastname("Test");
+        userDTO.setRoles(Set.of("USER"));
+        return userDTO;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.userapi.integration.service;
+
+import com.example.userapi.dto.UserResponseDTO;
+import com.example.userapi.model.Role;
+import com.example.userapi.model.User;
+import com.example.userapi.repository.RoleRepository;
+import com.example.userapi.repository.UserRepository;
+import com.example.userapi.service.RoleRegistry;
+import com.example.userapi.service.UserCountService;
+import com.example.userapi.service.UserServiceImplementation;
+import com.example.userapi.unit.testobjects.TestRolesFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class UserServiceSummariesTest {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private UserServiceImplementation userService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserServiceImplementation(userRepository, new RoleRegistry(roleRepository),
+                Mockito.mock(PasswordEncoder.class), Mockito.mock(ApplicationEventPublisher.class),
+                Mockito.mock(UserCountService.class));
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+
+        Role adminRole = entityManager.persist(TestRolesFactory.getAdminRole());
+        Role userRole = entityManager.persist(TestRolesFactory.getUserRole());
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Set<Role> roles = i % 2 == 0 ? Set.of(userRole) : Set.of(adminRole, userRole);
+            entityManager.persist(User.builder()
+                    .username("user" + i)
+                    .email("user" + i + "@example.com")
+                    .password("encodedPassword")
+                    .firstname("First" + i)
+                    .lastname("Last" + i)
+                    .roles(roles)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getUserSummaries_PageOf100Users_RunsAtMostTwoStatements() {
+        statistics.clear();
+
+        List<UserResponseDTO> users = userService.getUserSummaries(PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+
+        assertThat(users, hasSize(PAGE_SIZE));
+        assertThat(statistics.getPrepareStatementCount(), lessThanOrEqualTo(2L));
+        assertThat(statistics.getEntityLoadCount(), is(0L));
+    }
+
+    @Test
+    void getUserSummaries_ReturnsRolesOfEveryUser() {
+        List<UserResponseDTO> users = userService.getUserSummaries(PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+
+        assertThat(users.get(0).getRoles(), containsInAnyOrder("USER"));
+        assertThat(users.get(1).getRoles(), containsInAnyOrder("ADMIN", "USER"));
+        assertThat(users.get(1).getUsername(), is("user1"));
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.userapi.unit.controller;
+
+import com.example.userapi.controller.UserController;
+import com.example.userapi.dto.UserResponseDTO;
+import com.example.userapi.exception.GlobalExceptionHandler;
+import com.example.userapi.model.User;
+import com.example.userapi.service.UserBatchService;
+import com.example.userapi.service.UserCountService;
+import com.example.userapi.service.UserExportService;
+import com.example.userapi.service.UserPageCache;
+import com.example.userapi.service.UserService;
+import com.example.userapi.unit.testobjects.TestRolesFactory;
+import com.example.userapi.unit.testobjects.TestUsersFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class UserControllerTest {
+
+    private static final String USER_JSON = """
+            {"username":"exampleuser","email":"test@example.com","password":"password","roles":["USER"]}""";
+
+    private UserService userService;
+    private UserController userController;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        userService = Mockito.mock(UserService.class);
+        UserPageCache userPageCache = new UserPageCache(new ObjectMapper(), new SimpleMeterRegistry(), 1024 * 1024,
+                Duration.ofMinutes(1));
+        userController = new UserController(userService, Mockito.mock(UserBatchService.class),
+                Mockito.mock(UserExportService.class), Mockito.mock(UserCountService.class), userPageCache);
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void getUsers_NoUsers_ReturnsNoContent() {
+        Pageable pageable = PageRequest.of(3, 20);
+        Mockito.when(userService.getUserSummaries(pageable)).thenReturn(List.of());
+
+        ResponseEntity<byte[]> response = userController.getUsers(pageable);
+
+        assertThat(response.getStatusCode(), is(HttpStatus.NO_CONTENT));
+        assertThat(response.getBody(), is(nullValue()));
+    }
+
+    @Test
+    void getUsers_RepeatedRequest_QueriesTheServiceOnce() {
+        Pageable pageable = PageRequest.of(0, 20);
+        UserResponseDTO user = new UserResponseDTO();
+        user.setUsername("user1");
+        Mockito.when(userService.getUserSummaries(pageable)).thenReturn(List.of(user));
+
+        userController.getUsers(pageable);
+        ResponseEntity<byte[]> response = userController.getUsers(pageable);
+
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        assertThat(response.getHeaders().getContentType(), is(MediaType.APPLICATION_JSON));
+        assertThat(new String(response.getBody()), containsString("\"username\":\"user1\""));
+        Mockito.verify(userService, Mockito.times(1)).getUserSummaries(pageable);
+    }
+
+    @Test
+    void getUserById_ExistingUser_ReturnsVersionAsETag() throws Exception {
+        Mockito.when(userService.getUserById(1L)).thenReturn(Optional.of(userWithVersion(3)));
+
+        mockMvc.perform(get("/api/v1/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(containsString("\"username\":\"exampleuser\"")));
+    }
+
+    @Test
+    void getUserById_MatchingIfNoneMatch_ReturnsNotModifiedWithoutLoadingTheUser() throws Exception {
+        Mockito.when(userService.getUserVersion(1L)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/api/v1/users/1").header(HttpHeaders.IF_NONE_MATCH, "W/\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+        Mockito.verify(userService, Mockito.never()).getUserById(Mockito.anyLong());
+    }
+
+    @Test
+    void getUserById_StaleIfNoneMatch_ReturnsUser() throws Exception {
+        Mockito.when(userService.getUserVersion(1L)).thenReturn(Optional.of(4L));
+        Mockito.when(userService.getUserById(1L)).thenReturn(Optional.of(userWithVersion(4)));
+
+        mockMvc.perform(get("/api/v1/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    void updateUser_StaleIfMatch_ReturnsPreconditionFailed() throws Exception {
+        Mockito.when(userService.getUserVersion(1L)).thenReturn(Optional.of(4L));
+
+        mockMvc.perform(put("/api/v1/users/1").header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(USER_JSON))
+                .andExpect(status().isPreconditionFailed());
+        Mockito.verify(userService, Mockito.never()).updateUser(Mockito.any(), Mockito.anyLong(), Mockito.any());
+    }
+
+    @Test
+    void updateUser_MatchingIfMatch_WritesConditionallyAndReturnsNewETag() throws Exception {
+        Mockito.when(userService.getUserVersion(1L)).thenReturn(Optional.of(3L));
+        Mockito.when(userService.updateUser(Mockito.any(), Mockito.eq(1L), Mockito.eq(3L))).thenReturn(userWithVersion(4));
+
+        mockMvc.perform(put("/api/v1/users/1").header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(USER_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    void patchUser_ConcurrentModification_ReturnsConflict() throws Exception {
+        Mockito.when(userService.getUserVersion(1L)).thenReturn(Optional.of(3L));
+        Mockito.when(userService.patchUser(Mockito.eq(1L), Mockito.any(), Mockito.eq(3L)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L));
+
+        mockMvc.perform(patch("/api/v1/users/1").header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"firstname\":\"New\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    private static User userWithVersion(long version) {
+        User user = TestUsersFactory.createTestUser("encodedPassword", TestRolesFactory.getRoles());
+        user.setVersion(version);
+        return user;
+    }
+}
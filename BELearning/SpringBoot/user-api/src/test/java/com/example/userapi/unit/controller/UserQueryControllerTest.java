@@ -0,0 +1,60 @@
+package com.example.userapi.unit.controller;
+
+import com.example.userapi.controller.UserQueryController;
+import com.example.userapi.dto.UserCursor;
+import com.example.userapi.dto.UserResponseDTO;
+import com.example.userapi.service.UserQueryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class UserQueryControllerTest {
+
+    private UserQueryService userQueryService;
+    private UserQueryController userQueryController;
+
+    @BeforeEach
+    void setUp() {
+        userQueryService = Mockito.mock(UserQueryService.class);
+        userQueryController = new UserQueryController(userQueryService);
+    }
+
+    @Test
+    void getUserById_Found_ReturnsOk() {
+        UserResponseDTO user = new UserResponseDTO();
+        user.setId(5L);
+        Mockito.when(userQueryService.getUserById(5L)).thenReturn(Mono.just(user));
+
+        ResponseEntity<UserResponseDTO> response = userQueryController.getUserById(5L).block();
+
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        assertThat(response.getBody(), sameInstance(user));
+    }
+
+    @Test
+    void getUserByUsername_NotFound_ReturnsNotFound() {
+        Mockito.when(userQueryService.getUserByUsername("nobody")).thenReturn(Mono.empty());
+
+        ResponseEntity<UserResponseDTO> response = userQueryController.getUserByUsername("nobody").block();
+
+        assertThat(response.getStatusCode(), is(HttpStatus.NOT_FOUND));
+    }
+
+    @Test
+    void getUsers_CursorAndOversizedPage_ContinuesAfterCursorWithCappedSize() {
+        Mockito.when(userQueryService.getUsersAfter(Mockito.any(), Mockito.anyInt())).thenReturn(Flux.empty());
+
+        userQueryController.getUsers(UserCursor.encode(42L), 5000).collectList().block();
+        userQueryController.getUsers(null, 0).collectList().block();
+
+        Mockito.verify(userQueryService).getUsersAfter(42L, 1000);
+        Mockito.verify(userQueryService).getUsersAfter(null, 1);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.userapi.unit.filters;
+
+import com.example.userapi.filters.AuthRateLimitFilter;
+import com.example.userapi.security.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AuthRateLimitFilterTest {
+
+    private AuthRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new AuthRateLimitFilter(new RateLimiter(10, Duration.ofHours(1), 100),
+                new RateLimiter(2, Duration.ofHours(1), 100), new RateLimiter(2, Duration.ofHours(1), 100),
+                new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void availability_BeyondCapacity_Returns429() throws Exception {
+        filter.doFilter(availabilityRequest("alice"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(availabilityRequest("bob"), new MockHttpServletResponse(), new MockFilterChain());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+
+        filter.doFilter(availabilityRequest("carol"), response, filterChain);
+
+        assertThat(response.getStatus(), is(429));
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER), is(notNullValue()));
+        assertThat(filterChain.getRequest(), is(nullValue()));
+    }
+
+    @Test
+    void signin_SameUsernameBeyondCapacity_Returns429() throws Exception {
+        filter.doFilter(signinRequest("alice"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(signinRequest("Alice"), new MockHttpServletResponse(), new MockFilterChain());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(signinRequest("ALICE"), response, new MockFilterChain());
+
+        assertThat(response.getStatus(), is(429));
+    }
+
+    @Test
+    void signin_Allowed_ReplaysBodyToChain() throws Exception {
+        MockFilterChain filterChain = new MockFilterChain();
+
+        filter.doFilter(signinRequest("alice"), new MockHttpServletResponse(), filterChain);
+
+        ServletRequest forwarded = filterChain.getRequest();
+        assertThat(new String(forwarded.getInputStream().readAllBytes(), StandardCharsets.UTF_8),
+                is("{\"username\":\"alice\",\"password\":\"secret\"}"));
+        assertThrows(IllegalStateException.class, () -> forwarded.getInputStream().setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() {
+            }
+
+            @Override
+            public void onAllDataRead() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        }));
+    }
+
+    private static MockHttpServletRequest availabilityRequest(String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/auth/availability");
+        request.setServletPath("/api/v1/auth/availability");
+        request.setParameter("username", username);
+        return request;
+    }
+
+    private static MockHttpServletRequest signinRequest(String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/auth/signin");
+        request.setServletPath("/api/v1/auth/signin");
+        request.setContentType("application/json");
+        request.setContent(("{\"username\":\"" + username + "\",\"password\":\"secret\"}").getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.userapi.unit.security;
+
+import com.example.userapi.exception.PasswordHashingUnavailableException;
+import com.example.userapi.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @AfterEach
+    void tearDown() {
+        passwordEncoder.shutdown();
+    }
+
+    @Test
+    void matches_DuringBatch_IsNotStarved() throws Exception {
+        CountDownLatch batchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        passwordEncoder = new BoundedPasswordEncoder(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                batchStarted.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return "{slow}" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encodedPassword.equals("{slow}" + rawPassword);
+            }
+        }, 2, 2, 1, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        List<String> rawPasswords = Collections.nCopies(20, "password");
+
+        CompletableFuture<List<String>> batch = CompletableFuture.supplyAsync(() -> passwordEncoder.encodeAll(rawPasswords));
+        assertThat(batchStarted.await(5, TimeUnit.SECONDS), is(true));
+        // the batch holds its only permit while its hash is blocked, the other thread is left to sign-ins
+        for (int i = 0; i < 10; i++) {
+            assertThat(passwordEncoder.matches("password", "{slow}password"), is(true));
+        }
+        assertThat(batch.isDone(), is(false));
+        release.countDown();
+
+        assertThat(batch.get(10, TimeUnit.SECONDS), everyItem(is("{slow}password")));
+        assertThat(maxRunning.get(), is(1));
+    }
+
+    @Test
+    void encodeAll_NoSlotWithinMaxWait_ThrowsInsteadOfHashingOnCaller() {
+        CountDownLatch release = new CountDownLatch(1);
+        Set<Thread> hashingThreads = ConcurrentHashMap.newKeySet();
+        passwordEncoder = new BoundedPasswordEncoder(new BlockingPasswordEncoder(release) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                hashingThreads.add(Thread.currentThread());
+                return super.encode(rawPassword);
+            }
+        }, 1, 1, 1, Duration.ofMillis(100), new SimpleMeterRegistry());
+
+        try {
+            assertThrows(PasswordHashingUnavailableException.class,
+                    () -> passwordEncoder.encodeAll(List.of("first", "second", "third")));
+        } finally {
+            release.countDown();
+        }
+        assertThat(hashingThreads, not(hasItem(Thread.currentThread())));
+    }
+
+    private static class BlockingPasswordEncoder implements PasswordEncoder {
+
+        private final CountDownLatch release;
+
+        BlockingPasswordEncoder(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            work();
+            return "{slow}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            work();
+            return encodedPassword.equals("{slow}" + rawPassword);
+        }
+
+        private void work() {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
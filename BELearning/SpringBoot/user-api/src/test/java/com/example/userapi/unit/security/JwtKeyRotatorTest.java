@@ -0,0 +1,117 @@
+package com.example.userapi.unit.security;
+
+import com.example.userapi.model.User;
+import com.example.userapi.security.JwtKeyRing;
+import com.example.userapi.security.JwtKeyRotator;
+import com.example.userapi.security.JwtTokenProvider;
+import com.example.userapi.unit.testobjects.TestRolesFactory;
+import com.example.userapi.unit.testobjects.TestUsersFactory;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JwtKeyRotatorTest {
+
+    private static final Duration INTERVAL = Duration.ofDays(30);
+    private static final Duration GRACE_PERIOD = Duration.ofMinutes(10);
+    private static final long TOKEN_LIFETIME_MS = Duration.ofMinutes(15).toMillis();
+
+    @TempDir
+    Path tempDir;
+
+    private Path keyFile;
+    private JwtKeyRing keyRing;
+    private JwtKeyRotator jwtKeyRotator;
+    private JwtTokenProvider jwtTokenProvider;
+    private User user;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        keyFile = tempDir.resolve("jwt-keys.properties");
+        Files.writeString(keyFile, "key.first=" + randomSecret() + "\nactive=first\n");
+        keyRing = new JwtKeyRing(keyFile.toString(), "", "");
+        jwtKeyRotator = rotator(keyFile.toString(), "");
+        jwtTokenProvider = new JwtTokenProvider(keyRing, TOKEN_LIFETIME_MS, 100L);
+        user = TestUsersFactory.createTestUser("password", TestRolesFactory.getRoles());
+    }
+
+    @Test
+    void rotateIfDue_PublishesThenPromotesThenRemovesKeys() {
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        String oldToken = jwtTokenProvider.generateToken(user);
+
+        // the first key has no creation time, so it is due right away
+        jwtKeyRotator.rotateIfDue(start);
+
+        assertThat(keyRing.keys(), hasSize(2));
+        assertThat(keyRing.activeKey().kid(), is("first"));
+
+        jwtKeyRotator.rotateIfDue(start.plus(GRACE_PERIOD).minusSeconds(1));
+        assertThat(keyRing.activeKey().kid(), is("first"));
+
+        jwtKeyRotator.rotateIfDue(start.plus(GRACE_PERIOD));
+        String newToken = jwtTokenProvider.generateToken(user);
+
+        assertThat(keyRing.activeKey().kid(), is("key-20260101T000000"));
+        assertThat(jwtTokenProvider.parseClaims(oldToken).getSubject(), is(user.getUsername()));
+
+        Instant removal = start.plus(GRACE_PERIOD).plusMillis(TOKEN_LIFETIME_MS).plus(GRACE_PERIOD);
+        jwtKeyRotator.rotateIfDue(removal.minusSeconds(1));
+        assertThat(keyRing.keys(), hasSize(2));
+
+        jwtKeyRotator.rotateIfDue(removal);
+
+        assertThat(keyRing.keys(), hasSize(1));
+        assertThrows(JwtException.class, () -> jwtTokenProvider.parseClaims(oldToken));
+        assertThat(jwtTokenProvider.parseClaims(newToken).getSubject(), is(user.getUsername()));
+    }
+
+    @Test
+    void rotateIfDue_ActiveKeyYoungerThanInterval_PublishesNoKey() {
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        jwtKeyRotator.rotateIfDue(start);
+        jwtKeyRotator.rotateIfDue(start.plus(GRACE_PERIOD));
+
+        jwtKeyRotator.rotateIfDue(start.plus(INTERVAL).minusSeconds(1));
+
+        // the retired first key is gone by now and no new key is published yet
+        assertThat(keyRing.keys().stream().map(JwtKeyRing.SigningKey::kid).toList(), contains("key-20260101T000000"));
+
+        jwtKeyRotator.rotateIfDue(start.plus(INTERVAL));
+
+        assertThat(keyRing.keys().stream().map(JwtKeyRing.SigningKey::kid).toList(),
+                containsInAnyOrder("key-20260101T000000", "key-20260131T000000"));
+        assertThat(keyRing.activeKey().kid(), is("key-20260101T000000"));
+    }
+
+    @Test
+    void constructor_KeystoreOrConfiguredActiveKey_ThrowsIllegalStateException() {
+        assertThrows(IllegalStateException.class, () -> rotator(tempDir.resolve("keys.p12").toString(), ""));
+        assertThrows(IllegalStateException.class, () -> rotator("", ""));
+        assertThrows(IllegalStateException.class, () -> rotator(keyFile.toString(), "first"));
+    }
+
+    private JwtKeyRotator rotator(String location, String activeKid) {
+        return new JwtKeyRotator(keyRing, location, activeKid, Duration.ofMinutes(1), INTERVAL, GRACE_PERIOD,
+                TOKEN_LIFETIME_MS);
+    }
+
+    private static String randomSecret() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return Base64.getEncoder().encodeToString(secret);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.userapi.unit.security;
+
+import com.example.userapi.model.User;
+import com.example.userapi.security.JwtKeyRing;
+import com.example.userapi.security.JwtTokenProvider;
+import com.example.userapi.unit.testobjects.TestRolesFactory;
+import com.example.userapi.unit.testobjects.TestUsersFactory;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JwtTokenProviderTest {
+
+    private static final String FIRST_SECRET = randomSecret();
+    private static final String SECOND_SECRET = randomSecret();
+
+    @TempDir
+    Path tempDir;
+
+    private Path keyFile;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        keyFile = tempDir.resolve("jwt-keys.properties");
+        user = TestUsersFactory.createTestUser("password", TestRolesFactory.getRoles());
+    }
+
+    @Test
+    void parseClaims_TokenOfOtherInstanceSharingTheKeys_ReturnsClaims() throws IOException {
+        writeKeys(Instant.now(), "key.first=" + FIRST_SECRET, "active=first");
+        String token = provider(new JwtKeyRing(keyFile.toString(), "", "")).generateToken(user);
+
+        JwtTokenProvider otherInstance = provider(new JwtKeyRing(keyFile.toString(), "", ""));
+
+        assertThat(otherInstance.parseClaims(token).getSubject(), is(user.getUsername()));
+    }
+
+    @Test
+    void parseClaims_AfterRotation_OldTokensVerifyUntilTheirKeyIsRemoved() throws IOException {
+        writeKeys(Instant.now().minusSeconds(120), "key.first=" + FIRST_SECRET, "active=first");
+        JwtKeyRing keyRing = new JwtKeyRing(keyFile.toString(), "", "");
+        JwtTokenProvider jwtTokenProvider = provider(keyRing);
+        String oldToken = jwtTokenProvider.generateToken(user);
+
+        writeKeys(Instant.now().minusSeconds(60), "key.first=" + FIRST_SECRET, "key.second=" + SECOND_SECRET, "active=second");
+        keyRing.reloadIfChanged();
+        String newToken = jwtTokenProvider.generateToken(user);
+
+        assertThat(keyRing.activeKey().kid(), is("second"));
+        assertThat(jwtTokenProvider.parseClaims(oldToken).getSubject(), is(user.getUsername()));
+        assertThat(jwtTokenProvider.parseClaims(newToken).getSubject(), is(user.getUsername()));
+
+        writeKeys(Instant.now(), "key.second=" + SECOND_SECRET, "active=second");
+        keyRing.reloadIfChanged();
+
+        assertThrows(JwtException.class, () -> jwtTokenProvider.parseClaims(oldToken));
+        assertThat(jwtTokenProvider.parseClaims(newToken).getSubject(), is(user.getUsername()));
+    }
+
+    @Test
+    void reloadIfChanged_InvalidFile_KeepsCurrentKeys() throws IOException {
+        writeKeys(Instant.now().minusSeconds(60), "key.first=" + FIRST_SECRET, "active=first");
+        JwtKeyRing keyRing = new JwtKeyRing(keyFile.toString(), "", "");
+
+        writeKeys(Instant.now(), "active=missing");
+        keyRing.reloadIfChanged();
+
+        assertThat(keyRing.activeKey().kid(), is("first"));
+    }
+
+    private static JwtTokenProvider provider(JwtKeyRing keyRing) {
+        return new JwtTokenProvider(keyRing, 3_600_000L, 100L);
+    }
+
+    private void writeKeys(Instant modified, String... lines) throws IOException {
+        Files.writeString(keyFile, String.join("\n", lines));
+        Files.setLastModifiedTime(keyFile, FileTime.from(modified));
+    }
+
+    private static String randomSecret() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return Base64.getEncoder().encodeToString(secret);
+    }
+}
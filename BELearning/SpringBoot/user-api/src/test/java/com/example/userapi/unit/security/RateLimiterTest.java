@@ -0,0 +1,66 @@
+package com.example.userapi.unit.security;
+
+import com.example.userapi.security.RateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class RateLimiterTest {
+
+    @Test
+    void tryAcquire_WithinCapacity_IsAllowed() {
+        RateLimiter rateLimiter = new RateLimiter(5, Duration.ofHours(1), 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.tryAcquire("client"), is(0L));
+        }
+    }
+
+    @Test
+    void tryAcquire_BeyondCapacity_ReturnsWaitUntilNextToken() {
+        RateLimiter rateLimiter = new RateLimiter(5, Duration.ofHours(1), 100);
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.tryAcquire("client");
+        }
+
+        long waitNanos = rateLimiter.tryAcquire("client");
+
+        assertThat(waitNanos, greaterThan(0L));
+        assertThat(waitNanos, lessThanOrEqualTo(Duration.ofMinutes(12).toNanos()));
+    }
+
+    @Test
+    void tryAcquire_OtherKey_HasItsOwnBucket() {
+        RateLimiter rateLimiter = new RateLimiter(1, Duration.ofHours(1), 100);
+        rateLimiter.tryAcquire("client");
+
+        assertThat(rateLimiter.tryAcquire("client"), greaterThan(0L));
+        assertThat(rateLimiter.tryAcquire("other"), is(0L));
+    }
+
+    @Test
+    void tryAcquire_FullCache_NewKeyStartsWithFullBucket() {
+        RateLimiter rateLimiter = new RateLimiter(2, Duration.ofHours(1), 10);
+        for (int i = 0; i < 1_000; i++) {
+            rateLimiter.tryAcquire("random" + i);
+            rateLimiter.tryAcquire("random" + i);
+        }
+
+        assertThat(rateLimiter.tryAcquire("newcomer"), is(0L));
+        assertThat(rateLimiter.tryAcquire("newcomer"), is(0L));
+        assertThat(rateLimiter.tryAcquire("newcomer"), greaterThan(0L));
+    }
+
+    @Test
+    void tryAcquire_ManyKeys_StaysWithinMaxKeys() {
+        RateLimiter rateLimiter = new RateLimiter(1, Duration.ofHours(1), 10);
+        for (int i = 0; i < 1_000; i++) {
+            rateLimiter.tryAcquire("random" + i);
+        }
+
+        assertThat(rateLimiter.size(), lessThanOrEqualTo(10L));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.userapi.unit.security;
+
+import com.example.userapi.model.RevokedToken;
+import com.example.userapi.repository.RevokedTokenRepository;
+import com.example.userapi.security.TokenRevocationStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class TokenRevocationStoreTest {
+
+    private RevokedTokenRepository revokedTokenRepository;
+    private TokenRevocationStore tokenRevocationStore;
+
+    @BeforeEach
+    void setUp() {
+        revokedTokenRepository = Mockito.mock(RevokedTokenRepository.class);
+        tokenRevocationStore = new TokenRevocationStore(revokedTokenRepository, new SimpleMeterRegistry(),
+                Duration.ofMinutes(1), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void isRevoked_RevokedToken_ReturnsTrueAndPersistsRevocation() {
+        String jti = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plusSeconds(600);
+
+        tokenRevocationStore.revoke(jti, expiresAt);
+
+        assertThat(tokenRevocationStore.isRevoked(jti, Date.from(expiresAt)), is(true));
+        assertThat(tokenRevocationStore.isRevoked(UUID.randomUUID().toString(), Date.from(expiresAt)), is(false));
+        Mockito.verify(revokedTokenRepository).save(Mockito.any(RevokedToken.class));
+    }
+
+    @Test
+    void isRevoked_TokenWithoutJti_ReturnsFalse() {
+        assertThat(tokenRevocationStore.isRevoked(null, Date.from(Instant.now().plusSeconds(600))), is(false));
+    }
+
+    @Test
+    void synchronize_RevocationsOfOtherInstances_AreLoaded() {
+        String loadedJti = UUID.randomUUID().toString();
+        String polledJti = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        Mockito.when(revokedTokenRepository.findByExpiresAtAfter(Mockito.any()))
+                .thenReturn(List.of(new RevokedToken(loadedJti, expiresAt, Instant.now())));
+        Mockito.when(revokedTokenRepository.findByRevokedAtGreaterThanEqual(Mockito.any()))
+                .thenReturn(List.of(new RevokedToken(polledJti, expiresAt, Instant.now())));
+
+        tokenRevocationStore.synchronize();
+        assertThat(tokenRevocationStore.isRevoked(loadedJti, Date.from(expiresAt)), is(true));
+        assertThat(tokenRevocationStore.isRevoked(polledJti, Date.from(expiresAt)), is(false));
+
+        tokenRevocationStore.synchronize();
+        assertThat(tokenRevocationStore.isRevoked(polledJti, Date.from(expiresAt)), is(true));
+    }
+
+    @Test
+    void revoke_ExpiredToken_IsIgnored() {
+        tokenRevocationStore.revoke(UUID.randomUUID().toString(), Instant.now().minusSeconds(1));
+
+        Mockito.verifyNoInteractions(revokedTokenRepository);
+    }
+}
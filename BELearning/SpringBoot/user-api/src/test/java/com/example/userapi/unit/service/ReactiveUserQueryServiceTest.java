@@ -0,0 +1,103 @@
+package com.example.userapi.unit.service;
+
+import com.example.userapi.dto.UserResponseDTO;
+import com.example.userapi.service.ReactiveUserQueryService;
+import io.r2dbc.spi.Readable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ReactiveUserQueryServiceTest {
+
+    private DatabaseClient databaseClient;
+    private DatabaseClient.GenericExecuteSpec executeSpec;
+    private ReactiveUserQueryService reactiveUserQueryService;
+    private List<Readable> rows;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        databaseClient = Mockito.mock(DatabaseClient.class);
+        executeSpec = Mockito.mock(DatabaseClient.GenericExecuteSpec.class);
+        Mockito.when(databaseClient.sql(Mockito.anyString())).thenReturn(executeSpec);
+        Mockito.when(executeSpec.bind(Mockito.anyString(), Mockito.any())).thenReturn(executeSpec);
+        // runs the service's row mapping on the rows of the test
+        Mockito.when(executeSpec.map(Mockito.any(Function.class))).thenAnswer(invocation -> {
+            Function<Readable, UserResponseDTO> mapping = invocation.getArgument(0);
+            RowsFetchSpec<UserResponseDTO> fetchSpec = Mockito.mock(RowsFetchSpec.class);
+            Mockito.when(fetchSpec.one()).thenAnswer(ignored -> Mono.justOrEmpty(rows.stream().findFirst().map(mapping)));
+            Mockito.when(fetchSpec.all()).thenAnswer(ignored -> Flux.fromIterable(rows).map(mapping));
+            return fetchSpec;
+        });
+        reactiveUserQueryService = new ReactiveUserQueryService(databaseClient);
+    }
+
+    @Test
+    void getUserById_ReadsTheRolesArray() {
+        rows = List.of(row(5L, "alice", new String[]{"ADMIN", "USER"}));
+
+        UserResponseDTO user = reactiveUserQueryService.getUserById(5L).block();
+
+        assertThat(user.getId(), is(5L));
+        assertThat(user.getUsername(), is("alice"));
+        assertThat(user.getEmail(), is("alice@example.com"));
+        assertThat(user.getRoles(), is(Set.of("ADMIN", "USER")));
+        Mockito.verify(databaseClient).sql(Mockito.contains("array_agg(ur.role_name)"));
+        Mockito.verify(executeSpec).bind("id", 5L);
+    }
+
+    @Test
+    void getUserByUsername_RoleNameWithComma_IsKeptWhole() {
+        rows = List.of(row(5L, "alice", new String[]{"READ,WRITE"}));
+
+        UserResponseDTO user = reactiveUserQueryService.getUserByUsername("alice").block();
+
+        assertThat(user.getRoles(), is(Set.of("READ,WRITE")));
+        Mockito.verify(executeSpec).bind("username", "alice");
+    }
+
+    @Test
+    void getUserById_NoRoles_ReturnsEmptyRoles() {
+        rows = List.of(row(5L, "alice", null));
+
+        assertThat(reactiveUserQueryService.getUserById(5L).block().getRoles(), is(empty()));
+    }
+
+    @Test
+    void getUserById_NotFound_IsEmpty() {
+        rows = List.of();
+
+        assertThat(reactiveUserQueryService.getUserById(5L).blockOptional().isPresent(), is(false));
+    }
+
+    @Test
+    void getUsersAfter_FirstPage_StartsAfterIdZero() {
+        rows = List.of(row(1L, "alice", new String[]{"USER"}), row(2L, "bob", new String[]{"USER"}));
+
+        List<UserResponseDTO> users = reactiveUserQueryService.getUsersAfter(null, 20).collectList().block();
+
+        assertThat(users.stream().map(UserResponseDTO::getUsername).toList(), contains("alice", "bob"));
+        Mockito.verify(executeSpec).bind("afterId", 0L);
+        Mockito.verify(executeSpec).bind("limit", 20);
+    }
+
+    private static Readable row(Long id, String username, String[] roles) {
+        Readable row = Mockito.mock(Readable.class);
+        Mockito.when(row.get("id", Long.class)).thenReturn(id);
+        Mockito.when(row.get("username", String.class)).thenReturn(username);
+        Mockito.when(row.get("email", String.class)).thenReturn(username + "@example.com");
+        Mockito.when(row.get("roles", String[].class)).thenReturn(roles);
+        return row;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.userapi.unit.service;
+
+import com.example.userapi.exception.InvalidCredentialsException;
+import com.example.userapi.model.RefreshToken;
+import com.example.userapi.model.User;
+import com.example.userapi.repository.RefreshTokenRepository;
+import com.example.userapi.service.RefreshTokenService;
+import com.example.userapi.service.RefreshTokenServiceImplementation;
+import com.example.userapi.unit.testobjects.TestRolesFactory;
+import com.example.userapi.unit.testobjects.TestUsersFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RefreshTokenServiceImplementationTest {
+
+    private RefreshTokenRepository refreshTokenRepository;
+    private RefreshTokenServiceImplementation refreshTokenService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository = Mockito.mock(RefreshTokenRepository.class);
+        refreshTokenService = new RefreshTokenServiceImplementation(refreshTokenRepository, Duration.ofDays(14));
+        user = TestUsersFactory.createTestUser("password", TestRolesFactory.getRoles());
+    }
+
+    @Test
+    void rotate_IssuedToken_ReturnsNewTokenOfTheSameFamily() {
+        String refreshToken = refreshTokenService.issue(user);
+        RefreshToken stored = storedTokens().getFirst();
+        Mockito.when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+        Mockito.when(refreshTokenRepository.markUsed(Mockito.eq(stored.getId()), Mockito.any(Instant.class))).thenReturn(1);
+
+        RefreshTokenService.RotatedRefreshToken rotated = refreshTokenService.rotate(refreshToken);
+
+        assertThat(rotated.user(), is(user));
+        assertThat(rotated.refreshToken(), not(refreshToken));
+        RefreshToken replacement = storedTokens().getLast();
+        assertThat(replacement.getFamily(), is(stored.getFamily()));
+        assertThat(replacement.getTokenHash(), not(stored.getTokenHash()));
+    }
+
+    @Test
+    void rotate_UsedToken_RevokesFamilyAndThrowsInvalidCredentialsException() {
+        String refreshToken = refreshTokenService.issue(user);
+        RefreshToken stored = storedTokens().getFirst();
+        stored.setUsedAt(Instant.now());
+        Mockito.when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.rotate(refreshToken));
+        Mockito.verify(refreshTokenRepository).deleteByFamily(stored.getFamily());
+    }
+
+    @Test
+    void rotate_TokenUsedConcurrently_RevokesFamilyAndThrowsInvalidCredentialsException() {
+        String refreshToken = refreshTokenService.issue(user);
+        RefreshToken stored = storedTokens().getFirst();
+        Mockito.when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+        Mockito.when(refreshTokenRepository.markUsed(Mockito.eq(stored.getId()), Mockito.any(Instant.class))).thenReturn(0);
+
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.rotate(refreshToken));
+        Mockito.verify(refreshTokenRepository).deleteByFamily(stored.getFamily());
+    }
+
+    @Test
+    void rotate_TokenIssuedBeforeCredentialChange_ThrowsInvalidCredentialsException() {
+        String refreshToken = refreshTokenService.issue(user);
+        RefreshToken stored = storedTokens().getFirst();
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        Mockito.when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+        Mockito.when(refreshTokenRepository.markUsed(Mockito.eq(stored.getId()), Mockito.any(Instant.class))).thenReturn(1);
+
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.rotate(refreshToken));
+    }
+
+    @Test
+    void rotate_UnknownToken_ThrowsInvalidCredentialsException() {
+        Mockito.when(refreshTokenRepository.findByTokenHash(Mockito.anyString())).thenReturn(Optional.empty());
+
+        assertThrows(InvalidCredentialsException.class, () -> refreshTokenService.rotate("unknown"));
+        Mockito.verify(refreshTokenRepository, Mockito.never()).markUsed(Mockito.any(), Mockito.any());
+    }
+
+    private List<RefreshToken> storedTokens() {
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        Mockito.verify(refreshTokenRepository, Mockito.atLeastOnce()).save(captor.capture());
+        return captor.getAllValues();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.userapi.unit.service;
+
+import com.example.userapi.event.UserAuditRecord;
+import com.example.userapi.event.UserChangeType;
+import com.example.userapi.event.UserChangedEvent;
+import com.example.userapi.service.UserAuditLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class UserAuditLogTest {
+
+    @TempDir
+    private Path directory;
+    private ObjectMapper objectMapper;
+    private MeterRegistry meterRegistry;
+    private Thread writer;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void onUserChanged_WrittenAsJsonLinesByShutdown() throws Exception {
+        UserAuditLog userAuditLog = auditLog(1024, Duration.ofMillis(1));
+
+        userAuditLog.onUserChanged(event(1L, "alice"));
+        userAuditLog.onUserChanged(event(2L, "bob"));
+        userAuditLog.destroy();
+
+        List<UserAuditRecord> records = readRecords("audit-");
+        assertThat(records.stream().map(UserAuditRecord::username).toList(), contains("alice", "bob"));
+        assertThat(records.get(0).actor(), is("anonymous"));
+        assertThat(records.get(0).action(), is(UserChangeType.CREATED));
+        assertThat(counter("written"), is(2.0));
+    }
+
+    @Test
+    void onUserChanged_BufferFull_SpillsToOverflowSegmentInsteadOfDropping() throws Exception {
+        // the writer parks for a minute once it finds the buffer empty, so the buffer fills up
+        UserAuditLog userAuditLog = auditLog(2, Duration.ofMinutes(1));
+        awaitWriterParked();
+
+        for (long userId = 1; userId <= 5; userId++) {
+            userAuditLog.onUserChanged(event(userId, "user" + userId));
+        }
+        List<UserAuditRecord> spilled = readRecords("audit-overflow-");
+        userAuditLog.destroy();
+
+        // the overflow records are on disk before onUserChanged returns
+        assertThat(spilled.stream().map(UserAuditRecord::userId).toList(), contains(3L, 4L, 5L));
+        // the prefix also matches the overflow segments, so this reads every record
+        assertThat(readRecords("audit-").stream().map(UserAuditRecord::userId).toList(),
+                containsInAnyOrder(1L, 2L, 3L, 4L, 5L));
+        assertThat(counter("spilled"), is(3.0));
+        assertThat(counter("dropped"), is(0.0));
+    }
+
+    @Test
+    void onUserChanged_AfterShutdown_RejectedAndCounted() throws Exception {
+        UserAuditLog userAuditLog = auditLog(1024, Duration.ofMillis(1));
+        userAuditLog.destroy();
+
+        userAuditLog.onUserChanged(event(1L, "alice"));
+
+        assertThat(readRecords("audit-"), is(empty()));
+        assertThat(counter("written"), is(0.0));
+        assertThat(counter("dropped"), is(1.0));
+    }
+
+    private UserAuditLog auditLog(int bufferCapacity, Duration idleWait) throws IOException {
+        Set<Thread> existingWriters = auditWriters();
+        UserAuditLog userAuditLog = new UserAuditLog(objectMapper, meterRegistry, directory, bufferCapacity, 512, 1024 * 1024,
+                Duration.ZERO, idleWait, Duration.ofSeconds(10));
+        Set<Thread> writers = auditWriters();
+        writers.removeAll(existingWriters);
+        writer = writers.iterator().next();
+        return userAuditLog;
+    }
+
+    private static Set<Thread> auditWriters() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("audit-writer"))
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    /**
+     * Waits until the writer found the buffer empty and parked for the idle wait.
+     */
+    private void awaitWriterParked() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (writer.getState() != Thread.State.TIMED_WAITING) {
+            assertThat("audit writer did not park", System.nanoTime() - deadline < 0, is(true));
+            Thread.onSpinWait();
+        }
+    }
+
+    private List<UserAuditRecord> readRecords(String prefix) throws IOException {
+        List<UserAuditRecord> records = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.getFileName().toString().startsWith(prefix)).sorted().toList()) {
+                for (String line : Files.readAllLines(file)) {
+                    records.add(objectMapper.readValue(line, UserAuditRecord.class));
+                }
+            }
+        }
+        return records;
+    }
+
+    private double counter(String outcome) {
+        return meterRegistry.get("audit.records").tag("outcome", outcome).counter().count();
+    }
+
+    private static UserChangedEvent event(Long userId, String username) {
+        return new UserChangedEvent(UserChangeType.CREATED, userId, null, username, username + "@example.com", 0);
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.userapi.unit.service;
+
+import com.example.userapi.dto.BatchUserResult;
+import com.example.userapi.dto.BatchUserStatus;
+import com.example.userapi.dto.UserDTO;
+import com.example.userapi.event.UserChangeType;
+import com.example.userapi.event.UserChangedEvent;
+import com.example.userapi.model.User;
+import com.example.userapi.repository.RoleRepository;
+import com.example.userapi.repository.UserRepository;
+import com.example.userapi.repository.projection.UserIdentifiers;
+import com.example.userapi.security.BoundedPasswordEncoder;
+import com.example.userapi.service.RoleRegistry;
+import com.example.userapi.service.UserAvailabilityServiceImplementation;
+import com.example.userapi.service.UserBatchServiceImplementation;
+import com.example.userapi.unit.testobjects.TestRolesFactory;
+import com.example.userapi.unit.testobjects.TestUsersFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class UserAvailabilityServiceImplementationTest {
+
+    private UserRepository userRepository;
+    private PlatformTransactionManager transactionManager;
+    private UserAvailabilityServiceImplementation userAvailabilityService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        userAvailabilityService = new UserAvailabilityServiceImplementation(userRepository, transactionManager,
+                new SimpleMeterRegistry(), 1000, 0.01);
+        Mockito.when(userRepository.countUsers()).thenReturn(1L);
+    }
+
+    @Test
+    void isUsernameAvailable_BeforeFirstRebuild_QueriesTheDatabase() {
+        Mockito.when(userRepository.existsByUsername("alice")).thenReturn(true);
+
+        assertThat(userAvailabilityService.isUsernameAvailable("alice"), is(false));
+        assertThat(userAvailabilityService.mayEmailBeTaken("bob@example.com"), is(true));
+        Mockito.verify(userRepository).existsByUsername("alice");
+    }
+
+    @Test
+    void isUsernameAvailable_NameNotInFilter_AnsweredWithoutQuery() {
+        Mockito.when(userRepository.streamIdentifiers()).thenAnswer(invocation -> Stream.of(identifiers("alice")));
+        userAvailabilityService.rebuild();
+
+        assertThat(userAvailabilityService.isUsernameAvailable("bob"), is(true));
+        assertThat(userAvailabilityService.isEmailAvailable("bob@example.com"), is(true));
+        Mockito.verify(userRepository, Mockito.never()).existsByUsername(Mockito.anyString());
+        Mockito.verify(userRepository, Mockito.never()).existsByEmail(Mockito.anyString());
+    }
+
+    @Test
+    void isUsernameAvailable_NameInFilter_ConfirmedWithDatabase() {
+        Mockito.when(userRepository.streamIdentifiers()).thenAnswer(invocation -> Stream.of(identifiers("alice")));
+        userAvailabilityService.rebuild();
+        Mockito.when(userRepository.existsByUsername("alice")).thenReturn(true);
+        Mockito.when(userRepository.existsByEmail("alice@example.com")).thenReturn(false);
+
+        assertThat(userAvailabilityService.isUsernameAvailable("alice"), is(false));
+        // a user deleted since the rebuild leaves a false positive, the database has the last word
+        assertThat(userAvailabilityService.isEmailAvailable("alice@example.com"), is(true));
+    }
+
+    @Test
+    void onUserChanged_AfterRebuild_AddsTheNames() {
+        Mockito.when(userRepository.streamIdentifiers()).thenAnswer(invocation -> Stream.of(identifiers("alice")));
+        userAvailabilityService.rebuild();
+
+        userAvailabilityService.onUserChanged(created("carol"));
+
+        assertThat(userAvailabilityService.mayUsernameBeTaken("carol"), is(true));
+        assertThat(userAvailabilityService.mayEmailBeTaken("carol@example.com"), is(true));
+    }
+
+    @Test
+    void onUserChanged_DuringRebuild_IsKeptInTheNewFilters() {
+        Mockito.when(userRepository.streamIdentifiers()).thenAnswer(invocation -> Stream.of(identifiers("alice")));
+        userAvailabilityService.rebuild();
+        // a user registered while the scan runs is neither in the old filters nor in the scanned rows
+        Mockito.when(userRepository.streamIdentifiers()).thenAnswer(invocation -> {
+            userAvailabilityService.onUserChanged(created("carol"));
+            return Stream.of(identifiers("alice"));
+        });
+
+        userAvailabilityService.rebuild();
+
+        assertThat(userAvailabilityService.mayUsernameBeTaken("alice"), is(true));
+        assertThat(userAvailabilityService.mayUsernameBeTaken("carol"), is(true));
+        assertThat(userAvailabilityService.mayEmailBeTaken("carol@example.com"), is(true));
+    }
+
+    @Test
+    void addUsers_BatchPreCheck_LooksUpOnlyNamesTheFilterMayContain() {
+        Mockito.when(userRepository.streamIdentifiers()).thenAnswer(invocation -> Stream.of(identifiers("alice")));
+        userAvailabilityService.rebuild();
+        RoleRepository roleRepository = Mockito.mock(RoleRepository.class);
+        Mockito.when(roleRepository.findAll()).thenReturn(List.copyOf(TestRolesFactory.getRoles()));
+        BoundedPasswordEncoder passwordEncoder = Mockito.mock(BoundedPasswordEncoder.class);
+        Mockito.when(passwordEncoder.encodeAll(Mockito.anyList()))
+                .thenAnswer(invocation -> invocation.<List<?>>getArgument(0).stream().map(password -> "encoded").toList());
+        Mockito.when(userRepository.findExistingUsernames(List.of("alice"))).thenReturn(Set.of("alice"));
+        Mockito.when(userRepository.saveAll(Mockito.<List<User>>any())).thenAnswer(invocation -> invocation.getArgument(0));
+        UserBatchServiceImplementation userBatchService = new UserBatchServiceImplementation(userRepository,
+                new RoleRegistry(roleRepository), passwordEncoder,
+                Validation.buildDefaultValidatorFactory().getValidator(), transactionManager,
+                Mockito.mock(ApplicationEventPublisher.class), userAvailabilityService, 50, 100);
+
+        List<BatchUserResult> results = userBatchService.addUsers(List.of(userDTO("alice"), userDTO("bob")));
+
+        assertThat(results.get(0).getStatus(), is(BatchUserStatus.CONFLICT));
+        assertThat(results.get(1).getStatus(), is(BatchUserStatus.CREATED));
+        Mockito.verify(userRepository).findExistingUsernames(List.of("alice"));
+        // no email of the batch may be taken, so they are not looked up at all
+        Mockito.verify(userRepository, Mockito.never()).findExistingEmails(Mockito.anyCollection());
+    }
+
+    private static UserIdentifiers identifiers(String username) {
+        return new UserIdentifiers() {
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return username + "@example.com";
+            }
+        };
+    }
+
+    private static UserChangedEvent created(String username) {
+        return new UserChangedEvent(UserChangeType.CREATED, 2L, null, username, username + "@example.com", 0);
+    }
+
+    private static UserDTO userDTO(String username) {
+        UserDTO userDTO = TestUsersFactory.createUserDTO("password", Set.of("USER"));
+        userDTO.setUsername(username);
+        userDTO.setEmail(username + "+new@example.com");
+        return userDTO;
+    }
+}
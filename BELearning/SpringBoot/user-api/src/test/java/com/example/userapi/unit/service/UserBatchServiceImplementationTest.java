@@ -0,0 +1,150 @@
+package com.example.userapi.unit.service;
+
+import com.example.userapi.dto.BatchUserResult;
+import com.example.userapi.dto.BatchUserStatus;
+import com.example.userapi.dto.UserDTO;
+import com.example.userapi.exception.PasswordHashingUnavailableException;
+import com.example.userapi.model.User;
+import com.example.userapi.repository.RoleRepository;
+import com.example.userapi.repository.UserRepository;
+import com.example.userapi.security.BoundedPasswordEncoder;
+import com.example.userapi.service.RoleRegistry;
+import com.example.userapi.service.UserAvailabilityService;
+import com.example.userapi.service.UserBatchServiceImplementation;
+import com.example.userapi.unit.testobjects.TestRolesFactory;
+import com.example.userapi.unit.testobjects.TestUsersFactory;
+import jakarta.validation.Validation;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class UserBatchServiceImplementationTest {
+
+    private UserRepository userRepository;
+    private BoundedPasswordEncoder passwordEncoder;
+    private ApplicationEventPublisher eventPublisher;
+    private UserBatchServiceImplementation userBatchService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        passwordEncoder = Mockito.mock(BoundedPasswordEncoder.class);
+        eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        RoleRepository roleRepository = Mockito.mock(RoleRepository.class);
+        Mockito.when(roleRepository.findAll()).thenReturn(List.copyOf(TestRolesFactory.getRoles()));
+        UserAvailabilityService userAvailabilityService = Mockito.mock(UserAvailabilityService.class);
+        Mockito.when(userAvailabilityService.mayUsernameBeTaken(Mockito.anyString())).thenReturn(true);
+        Mockito.when(userAvailabilityService.mayEmailBeTaken(Mockito.anyString())).thenReturn(true);
+        userBatchService = new UserBatchServiceImplementation(userRepository, new RoleRegistry(roleRepository),
+                passwordEncoder, Validation.buildDefaultValidatorFactory().getValidator(),
+                Mockito.mock(PlatformTransactionManager.class), eventPublisher, userAvailabilityService, 2, 100);
+
+        Mockito.when(passwordEncoder.encodeAll(Mockito.anyList()))
+                .thenAnswer(invocation -> invocation.<List<?>>getArgument(0).stream().map(password -> "encoded").toList());
+        Mockito.when(userRepository.findExistingUsernames(Mockito.anyCollection())).thenReturn(Set.of());
+        Mockito.when(userRepository.findExistingEmails(Mockito.anyCollection())).thenReturn(Set.of());
+        Mockito.when(userRepository.saveAll(Mockito.<List<User>>any())).thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(userRepository.saveAndFlush(Mockito.any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void addUsers_InvalidAndExistingItems_ReportedPerItem() {
+        UserDTO missingEmail = userDTO("carol");
+        missingEmail.setEmail(null);
+        UserDTO unknownRole = userDTO("dave");
+        unknownRole.setRoles(Set.of("UNKNOWN"));
+        UserDTO takenEmail = userDTO("erin");
+        Mockito.when(userRepository.findExistingUsernames(Mockito.anyCollection())).thenReturn(Set.of("alice"));
+        Mockito.when(userRepository.findExistingEmails(Mockito.anyCollection())).thenReturn(Set.of(takenEmail.getEmail()));
+
+        List<BatchUserResult> results = userBatchService.addUsers(
+                Arrays.asList(userDTO("alice"), userDTO("bob"), missingEmail, unknownRole, takenEmail, null));
+
+        assertThat(results.stream().map(BatchUserResult::getIndex).toList(), contains(0, 1, 2, 3, 4, 5));
+        assertThat(results.get(0).getStatus(), is(BatchUserStatus.CONFLICT));
+        assertThat(results.get(0).getMessage(), containsString("Username already exists"));
+        assertThat(results.get(1).getStatus(), is(BatchUserStatus.CREATED));
+        assertThat(results.get(1).getUser().getUsername(), is("bob"));
+        assertThat(results.get(2).getStatus(), is(BatchUserStatus.INVALID));
+        assertThat(results.get(2).getMessage(), containsString("email"));
+        assertThat(results.get(3).getStatus(), is(BatchUserStatus.INVALID));
+        assertThat(results.get(4).getStatus(), is(BatchUserStatus.CONFLICT));
+        assertThat(results.get(4).getMessage(), containsString("Email already exists"));
+        assertThat(results.get(5).getStatus(), is(BatchUserStatus.INVALID));
+    }
+
+    @Test
+    void addUsers_DuplicatesInsideBatch_OnlyFirstIsInserted() {
+        UserDTO sameEmail = userDTO("carol");
+        sameEmail.setEmail(userDTO("alice").getEmail());
+
+        List<BatchUserResult> results = userBatchService.addUsers(List.of(userDTO("alice"), userDTO("alice"), sameEmail));
+
+        assertThat(results.get(0).getStatus(), is(BatchUserStatus.CREATED));
+        assertThat(results.get(1).getStatus(), is(BatchUserStatus.CONFLICT));
+        assertThat(results.get(1).getMessage(), containsString("Username already exists"));
+        assertThat(results.get(2).getStatus(), is(BatchUserStatus.CONFLICT));
+        assertThat(results.get(2).getMessage(), containsString("Email already exists"));
+        Mockito.verify(passwordEncoder).encodeAll(List.of("password"));
+    }
+
+    @Test
+    void addUsers_ConcurrentClashOnBatchInsert_RetriesOneByOne() {
+        Mockito.when(userRepository.saveAll(Mockito.<List<User>>any())).thenThrow(uniqueViolation("bob"));
+        Mockito.when(userRepository.saveAndFlush(Mockito.argThat(user -> user != null && "bob".equals(user.getUsername()))))
+                .thenThrow(uniqueViolation("bob"));
+
+        List<BatchUserResult> results = userBatchService.addUsers(List.of(userDTO("alice"), userDTO("bob")));
+
+        assertThat(results.get(0).getStatus(), is(BatchUserStatus.CREATED));
+        assertThat(results.get(1).getStatus(), is(BatchUserStatus.CONFLICT));
+        assertThat(results.get(1).getMessage(), is("Username already exists: bob"));
+        // the passwords are hashed once, the retry reuses them
+        Mockito.verify(passwordEncoder, Mockito.times(1)).encodeAll(Mockito.anyList());
+        Mockito.verify(eventPublisher, Mockito.times(1)).publishEvent(Mockito.any(Object.class));
+    }
+
+    @Test
+    void addUsers_HashingRejectedPartway_KeepsInsertedChunksAndMarksRestUnavailable() {
+        Mockito.when(passwordEncoder.encodeAll(Mockito.anyList()))
+                .thenReturn(List.of("encoded", "encoded"))
+                .thenThrow(new PasswordHashingUnavailableException("Password hashing is overloaded"));
+        Mockito.when(userRepository.findExistingUsernames(Mockito.anyCollection())).thenReturn(Set.of("dave"));
+
+        List<BatchUserResult> results = userBatchService.addUsers(
+                List.of(userDTO("alice"), userDTO("bob"), userDTO("carol"), userDTO("dave"), userDTO("erin")));
+
+        assertThat(results.get(0).getStatus(), is(BatchUserStatus.CREATED));
+        assertThat(results.get(1).getStatus(), is(BatchUserStatus.CREATED));
+        assertThat(results.get(2).getStatus(), is(BatchUserStatus.UNAVAILABLE));
+        assertThat(results.get(2).getMessage(), is("Password hashing is overloaded"));
+        // found to clash before hashing, so resubmitting it would not help
+        assertThat(results.get(3).getStatus(), is(BatchUserStatus.CONFLICT));
+        assertThat(results.get(4).getStatus(), is(BatchUserStatus.UNAVAILABLE));
+        Mockito.verify(userRepository, Mockito.times(1)).saveAll(Mockito.<List<User>>any());
+    }
+
+    private static DataIntegrityViolationException uniqueViolation(String username) {
+        return new DataIntegrityViolationException("could not execute statement", new ConstraintViolationException("duplicate key",
+                new SQLException("Key (username)=(" + username + ") already exists.", "23505"), User.USERNAME_CONSTRAINT));
+    }
+
+    private static UserDTO userDTO(String username) {
+        UserDTO userDTO = TestUsersFactory.createUserDTO("password", Set.of("USER"));
+        userDTO.setUsername(username);
+        userDTO.setEmail(username + "@example.com");
+        return userDTO;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.userapi.unit.service;
+
+import com.example.userapi.dto.UserCountDTO;
+import com.example.userapi.dto.UserCountMode;
+import com.example.userapi.event.UserChangeType;
+import com.example.userapi.event.UserChangedEvent;
+import com.example.userapi.repository.UserRepository;
+import com.example.userapi.service.UserCountServiceImplementation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class UserCountServiceImplementationTest {
+
+    private UserRepository userRepository;
+    private DatabaseMetaData databaseMetaData;
+    private UserCountServiceImplementation userCountService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        userRepository = Mockito.mock(UserRepository.class);
+        DataSource dataSource = Mockito.mock(DataSource.class);
+        Connection connection = Mockito.mock(Connection.class);
+        databaseMetaData = Mockito.mock(DatabaseMetaData.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(connection);
+        Mockito.when(connection.getMetaData()).thenReturn(databaseMetaData);
+        Mockito.when(databaseMetaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        userCountService = new UserCountServiceImplementation(userRepository, dataSource);
+    }
+
+    @Test
+    void getMaintainedCount_CreatesAndDeletes_MoveTheCountWithoutQuerying() {
+        Mockito.when(userRepository.countUsers()).thenReturn(10L);
+        assertThat(userCountService.getMaintainedCount(), is(10L));
+
+        userCountService.onUserChanged(event(UserChangeType.CREATED));
+        userCountService.onUserChanged(event(UserChangeType.CREATED));
+        userCountService.onUserChanged(event(UserChangeType.DELETED));
+        userCountService.onUserChanged(event(UserChangeType.PATCHED));
+
+        assertThat(userCountService.getMaintainedCount(), is(11L));
+        Mockito.verify(userRepository, Mockito.times(1)).countUsers();
+    }
+
+    @Test
+    void getMaintainedCount_ChangesBeforeFirstLoad_AreCoveredByTheExactCount() {
+        userCountService.onUserChanged(event(UserChangeType.CREATED));
+        Mockito.when(userRepository.countUsers()).thenReturn(5L);
+
+        assertThat(userCountService.getMaintainedCount(), is(5L));
+    }
+
+    @Test
+    void resynchronize_DriftedCount_IsReplacedByTheExactCount() {
+        Mockito.when(userRepository.countUsers()).thenReturn(10L, 42L);
+        userCountService.getMaintainedCount();
+        userCountService.onUserChanged(event(UserChangeType.CREATED));
+
+        userCountService.resynchronize();
+
+        assertThat(userCountService.getMaintainedCount(), is(42L));
+    }
+
+    @Test
+    void countUsers_EstimateAvailable_ReturnsTheEstimate() {
+        Mockito.when(userRepository.estimateUserCount()).thenReturn(Optional.of(1234L));
+
+        userCountService.refreshEstimate();
+        UserCountDTO count = userCountService.countUsers(UserCountMode.ESTIMATED);
+
+        assertThat(count.getCount(), is(1234L));
+        assertThat(count.getMode(), is(UserCountMode.ESTIMATED));
+    }
+
+    @Test
+    void countUsers_TableNeverAnalyzed_ServesTheMaintainedCount() {
+        Mockito.when(userRepository.estimateUserCount()).thenReturn(Optional.of(-1L));
+        Mockito.when(userRepository.countUsers()).thenReturn(7L);
+
+        userCountService.refreshEstimate();
+        UserCountDTO count = userCountService.countUsers(UserCountMode.ESTIMATED);
+
+        assertThat(count.getCount(), is(7L));
+        assertThat(count.getMode(), is(UserCountMode.MAINTAINED));
+    }
+
+    @Test
+    void refreshEstimate_NotPostgreSQL_NeverQueriesTheEstimate() throws SQLException {
+        Mockito.when(databaseMetaData.getDatabaseProductName()).thenReturn("H2");
+        Mockito.when(userRepository.countUsers()).thenReturn(3L);
+
+        userCountService.refreshEstimate();
+        userCountService.refreshEstimate();
+
+        Mockito.verify(userRepository, Mockito.never()).estimateUserCount();
+        Mockito.verify(databaseMetaData, Mockito.times(1)).getDatabaseProductName();
+        assertThat(userCountService.countUsers(UserCountMode.ESTIMATED).getMode(), is(UserCountMode.MAINTAINED));
+    }
+
+    private static UserChangedEvent event(UserChangeType type) {
+        return new UserChangedEvent(type, 1L, null, "user", "user@example.com", 0);
+    }
+}
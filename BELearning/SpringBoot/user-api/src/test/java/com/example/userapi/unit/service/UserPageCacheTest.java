@@ -0,0 +1,90 @@
+package com.example.userapi.unit.service;
+
+import com.example.userapi.dto.UserResponseDTO;
+import com.example.userapi.event.UserChangeType;
+import com.example.userapi.event.UserChangedEvent;
+import com.example.userapi.service.UserPageCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class UserPageCacheTest {
+
+    private UserPageCache userPageCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        userPageCache = new UserPageCache(new ObjectMapper(), new SimpleMeterRegistry(), 1024 * 1024, Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void getPage_RepeatedRequest_ReturnsCachedBytesWithoutLoading() {
+        Pageable pageable = PageRequest.of(0, 20, Sort.by("id"));
+
+        byte[] first = userPageCache.getPage(pageable, loader("user1"));
+        byte[] second = userPageCache.getPage(PageRequest.of(0, 20, Sort.by("id")), loader("user2"));
+
+        // the same array means neither the repository nor Jackson ran again
+        assertThat(second, sameInstance(first));
+        assertThat(loads.get(), is(1));
+        assertThat(new String(first, StandardCharsets.UTF_8), containsString("\"username\":\"user1\""));
+    }
+
+    @Test
+    void getPage_OtherPageOrSort_LoadsSeparately() {
+        userPageCache.getPage(PageRequest.of(0, 20), loader("user1"));
+        userPageCache.getPage(PageRequest.of(1, 20), loader("user1"));
+        userPageCache.getPage(PageRequest.of(0, 20, Sort.by("username")), loader("user1"));
+
+        assertThat(loads.get(), is(3));
+    }
+
+    @Test
+    void getPage_AfterUserChanged_LoadsAgain() {
+        Pageable pageable = PageRequest.of(0, 20);
+        userPageCache.getPage(pageable, loader("user1"));
+
+        userPageCache.onUserChanged(new UserChangedEvent(UserChangeType.PATCHED, 1L, "user1", "renamed", "user1@example.com", 0));
+        byte[] page = userPageCache.getPage(pageable, loader("renamed"));
+
+        assertThat(loads.get(), is(2));
+        assertThat(new String(page, StandardCharsets.UTF_8), containsString("\"username\":\"renamed\""));
+    }
+
+    @Test
+    void getPage_NoUsers_ReturnsEmptyPage() {
+        byte[] page = userPageCache.getPage(PageRequest.of(5, 20), () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        assertThat(page, sameInstance(UserPageCache.EMPTY_PAGE));
+        assertThat(userPageCache.getPage(PageRequest.of(5, 20), loader("user1")), sameInstance(UserPageCache.EMPTY_PAGE));
+        assertThat(loads.get(), is(1));
+    }
+
+    private Supplier<List<UserResponseDTO>> loader(String username) {
+        return () -> {
+            loads.incrementAndGet();
+            UserResponseDTO user = new UserResponseDTO();
+            user.setId(1L);
+            user.setUsername(username);
+            return List.of(user);
+        };
+    }
+}
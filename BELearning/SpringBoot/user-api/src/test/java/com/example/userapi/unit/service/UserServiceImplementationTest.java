@@ -2,12 +2,16 @@ package com.example.userapi.unit.service;
 
 import com.example.userapi.dto.PatchUserDTO;
 import com.example.userapi.dto.UserDTO;
+import com.example.userapi.dto.UserSearchMode;
 import com.example.userapi.exception.ClashingUserException;
+import com.example.userapi.exception.PreconditionFailedException;
 import com.example.userapi.exception.UserNotFoundException;
 import com.example.userapi.model.User;
 import com.example.userapi.model.Role;
 import com.example.userapi.repository.RoleRepository;
 import com.example.userapi.repository.UserRepository;
+import com.example.userapi.service.RoleRegistry;
+import com.example.userapi.service.UserCountService;
 import com.example.userapi.service.UserServiceImplementation;
 import com.example.userapi.unit.testobjects.TestRolesFactory;
 import com.example.userapi.unit.testobjects.TestUsersFactory;
@@ -18,11 +22,14 @@ import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -31,6 +38,8 @@ public class UserServiceImplementationTest {
     private UserRepository userRepository;
     private RoleRepository roleRepository;
     private PasswordEncoder passwordEncoder;
+    private ApplicationEventPublisher eventPublisher;
+    private UserCountService userCountService;
     private UserServiceImplementation userService;
 
     @BeforeEach
@@ -38,22 +47,68 @@ public class UserServiceImplementationTest {
         userRepository = Mockito.mock(UserRepository.class);
         roleRepository = Mockito.mock(RoleRepository.class);
         passwordEncoder = Mockito.mock(PasswordEncoder.class);
-        userService = new UserServiceImplementation(userRepository, roleRepository, passwordEncoder);
+        eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        userCountService = Mockito.mock(UserCountService.class);
+        userService = new UserServiceImplementation(userRepository, new RoleRegistry(roleRepository), passwordEncoder,
+                eventPublisher, userCountService);
         Mockito.when(passwordEncoder.encode(Mockito.anyString())).thenReturn("encodedPassword");
+        Mockito.when(roleRepository.findAll()).thenReturn(List.copyOf(TestRolesFactory.getRoles()));
     }
 
     @Test
     void getUsers_ReturnsPaginatedUsers() {
         List<User> users = TestUsersFactory.createUserList();
 
-        Pageable pageable = Pageable.unpaged();
-        Page<User> userPage = new org.springframework.data.domain.PageImpl<>(users, pageable, 2);
+        Pageable pageable = PageRequest.of(1, 2);
 
-        Mockito.when(userRepository.findAll(pageable)).thenReturn(userPage);
+        Mockito.when(userRepository.findPage(pageable)).thenReturn(users);
+        Mockito.when(userCountService.getMaintainedCount()).thenReturn(10L);
 
         Page<User> result = userService.getUsers(pageable);
 
         assertThat(result.getContent(), hasSize(users.size()));
+        assertThat(result.getTotalElements(), is(10L));
+        Mockito.verify(userRepository, Mockito.never()).countUsers();
+    }
+
+    @Test
+    void searchUsers_Contains_EscapesLikeWildcards() {
+        Pageable pageable = PageRequest.of(0, 20);
+        Mockito.when(userRepository.searchSummaries(Mockito.anyString(), Mockito.eq(pageable))).thenReturn(List.of());
+
+        userService.searchUsers(" 50%_Off ", UserSearchMode.CONTAINS, pageable);
+
+        Mockito.verify(userRepository).searchSummaries("%50\\%\\_off%", pageable);
+    }
+
+    @Test
+    void searchUsers_ContainsWithTooShortText_ThrowsException() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> userService.searchUsers("ab", UserSearchMode.CONTAINS, PageRequest.of(0, 20))
+        );
+        Mockito.verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void searchUsers_PrefixWithTooShortText_ThrowsException() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> userService.searchUsers(" a ", UserSearchMode.PREFIX, PageRequest.of(0, 20))
+        );
+        Mockito.verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getUsersAfter_FirstPage_StartsFromTheLowestId() {
+        List<User> users = TestUsersFactory.createUserList();
+
+        Mockito.when(userRepository.findByIdGreaterThanOrderByIdAsc(Mockito.eq(0L), Mockito.argThat((Limit limit) -> limit.max() == 3)))
+                .thenReturn(users);
+
+        List<User> result = userService.getUsersAfter(null, 3);
+
+        assertThat(result, hasSize(users.size()));
     }
 
     @Test
@@ -116,7 +171,6 @@ public class UserServiceImplementationTest {
         Role role = TestRolesFactory.getUserRole();
         User user = TestUsersFactory.createTestUser("encodedPassword", Set.of(role));
 
-        Mockito.when(roleRepository.findById("USER")).thenReturn(Optional.of(role));
         Mockito.when(userRepository.save(Mockito.any(User.class))).thenReturn(user);
 
         User saved = userService.addUser(userDTO);
@@ -131,8 +185,6 @@ public class UserServiceImplementationTest {
     void addUser_RoleNotFound_ThrowsException() {
         UserDTO userDTO = TestUsersFactory.createUserDTO("password", Set.of("NOT_EXIST"));
 
-        Mockito.when(roleRepository.findById("NOT_EXIST")).thenReturn(Optional.empty());
-
         Exception thrown = assertThrows(
                 IllegalArgumentException.class,
                 () -> userService.addUser(userDTO)
@@ -148,7 +200,6 @@ public class UserServiceImplementationTest {
 
         User dbUser = TestUsersFactory.createPreUpdateUser("somePassword", Set.of(role));
 
-        Mockito.when(roleRepository.findById("USER")).thenReturn(Optional.of(role));
         Mockito.when(userRepository.findById(dbUser.getId())).thenReturn(Optional.of(dbUser));
         Mockito.when(userRepository.save(Mockito.any(User.class))).thenAnswer(inv -> inv.getArgument(0));
 
@@ -158,15 +209,28 @@ public class UserServiceImplementationTest {
         assertThat(updated.getEmail(), is(updateDTO.getEmail()));
         assertThat(updated.getPassword(), is("encodedPassword"));
         assertThat(updated.getRoles(), contains(role));
+        assertThat(updated.getTokenVersion(), is(1));
     }
 
     @Test
-    void updateUser_UserDoesNotExist_ThrowsUserNotFoundException() {
+    void updateUser_StaleExpectedVersion_ThrowsPreconditionFailedException() {
         UserDTO updateDTO = TestUsersFactory.createUserDTO("password", Set.of("USER"));
+        User dbUser = TestUsersFactory.createPreUpdateUser("somePassword", Set.of(TestRolesFactory.getUserRole()));
+        dbUser.setVersion(3L);
 
-        Role role = TestRolesFactory.getUserRole();
+        Mockito.when(userRepository.findById(dbUser.getId())).thenReturn(Optional.of(dbUser));
+
+        assertThrows(
+                PreconditionFailedException.class,
+                () -> userService.updateUser(updateDTO, dbUser.getId(), 2L)
+        );
+        Mockito.verify(userRepository, Mockito.never()).save(Mockito.any(User.class));
+    }
+
+    @Test
+    void updateUser_UserDoesNotExist_ThrowsUserNotFoundException() {
+        UserDTO updateDTO = TestUsersFactory.createUserDTO("password", Set.of("USER"));
 
-        Mockito.when(roleRepository.findById("USER")).thenReturn(Optional.of(role));
         Mockito.when(userRepository.findById(99L)).thenReturn(Optional.empty());
 
         Exception thrown = assertThrows(
@@ -180,8 +244,6 @@ public class UserServiceImplementationTest {
     void updateUser_RoleNotFound_ThrowsException() {
         UserDTO UserDTO = TestUsersFactory.createUserDTO("password", Set.of("NOT_EXIST"));
 
-        Mockito.when(roleRepository.findById("NOT_EXIST")).thenReturn(Optional.empty());
-
         Exception thrown = assertThrows(
                 IllegalArgumentException.class,
                 () -> userService.updateUser(UserDTO, 1L)
@@ -199,7 +261,6 @@ public class UserServiceImplementationTest {
         Role newRole = TestRolesFactory.getAdminRole();
 
         Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(dbUser));
-        Mockito.when(roleRepository.findById("ADMIN")).thenReturn(Optional.of(newRole));
         Mockito.when(userRepository.save(Mockito.any(User.class))).thenAnswer(inv -> inv.getArgument(0));
 
         User result = userService.patchUser(1L, patch);
@@ -231,10 +292,9 @@ public class UserServiceImplementationTest {
         Role oldRole = TestRolesFactory.getUserRole();
         User dbUser = TestUsersFactory.createTestUser("encodedPassword", Set.of(oldRole));
 
-        PatchUserDTO patch = TestUsersFactory.createPatchUserDTO(Set.of("ADMIN"));
+        PatchUserDTO patch = TestUsersFactory.createPatchUserDTO(Set.of("NOT_EXIST"));
 
         Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(dbUser));
-        Mockito.when(roleRepository.findById("NOT_EXIST")).thenReturn(Optional.empty());
 
         Exception thrown = assertThrows(
                 IllegalArgumentException.class,
@@ -263,18 +323,35 @@ public class UserServiceImplementationTest {
         assertThat(result.getRoles(), contains(oldRole));
     }
 
+    @Test
+    void addUser_UnknownRole_IsLoadedWithSingleBatchQuery() throws ClashingUserException {
+        UserDTO userDTO = TestUsersFactory.createUserDTO("password", Set.of("USER", "AUDITOR"));
+
+        Role auditorRole = new Role();
+        auditorRole.setName("AUDITOR");
+
+        Mockito.when(roleRepository.findAllById(List.of("AUDITOR"))).thenReturn(List.of(auditorRole));
+        Mockito.when(userRepository.save(Mockito.any(User.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        User saved = userService.addUser(userDTO);
+
+        assertThat(saved.getRoles(), containsInAnyOrder(TestRolesFactory.getUserRole(), auditorRole));
+        Mockito.verify(roleRepository, Mockito.never()).findById(Mockito.anyString());
+    }
+
     @Test
     void deleteUser_UserExists_DeletesUser() throws UserNotFoundException {
-        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
+        User user = TestUsersFactory.createUserWithIdentifiers();
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(user));
 
         userService.deleteUser(1L);
 
-        Mockito.verify(userRepository).deleteById(1L);
+        Mockito.verify(userRepository).delete(user);
     }
 
     @Test
     void deleteUser_UserDoesNotExist_ThrowsUserNotFoundException() {
-        Mockito.when(userRepository.existsById(2L)).thenReturn(false);
+        Mockito.when(userRepository.findById(2L)).thenReturn(Optional.empty());
 
         Exception thrown = assertThrows(
                 UserNotFoundException.class,
@@ -0,0 +1,57 @@
+package com.example.userapi.unit.util;
+
+import com.example.userapi.util.BloomFilter;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BloomFilterTest {
+
+    private static final int INSERTIONS = 10_000;
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    @Test
+    void mightContain_AddedValues_AlwaysTrue() {
+        BloomFilter bloomFilter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_PROBABILITY);
+        for (int i = 0; i < INSERTIONS; i++) {
+            bloomFilter.put("user" + i);
+        }
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertThat(bloomFilter.mightContain("user" + i), is(true));
+        }
+    }
+
+    @Test
+    void mightContain_ValuesNotAdded_FalsePositiveRateCloseToTarget() {
+        BloomFilter bloomFilter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_PROBABILITY);
+        for (int i = 0; i < INSERTIONS; i++) {
+            bloomFilter.put("user" + i + "@example.com");
+        }
+
+        int falsePositives = 0;
+        int lookups = 100_000;
+        for (int i = 0; i < lookups; i++) {
+            if (bloomFilter.mightContain("other" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+
+        assertThat((double) falsePositives / lookups, lessThan(FALSE_POSITIVE_PROBABILITY * 2));
+    }
+
+    @Test
+    void mightContain_EmptyFilter_ReturnsFalse() {
+        BloomFilter bloomFilter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_PROBABILITY);
+
+        assertThat(bloomFilter.mightContain("user"), is(false));
+        assertThat(bloomFilter.mightContain(""), is(false));
+    }
+
+    @Test
+    void constructor_InvalidProbability_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(INSERTIONS, 1.0));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.userapi.unit.util;
+
+import com.example.userapi.util.MpmcRingBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MpmcRingBufferTest {
+
+    @Test
+    void poll_ReturnsElementsInOfferOrder() {
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(4);
+        for (int lap = 0; lap < 3; lap++) {
+            for (int i = 0; i < 4; i++) {
+                assertThat(buffer.offer(lap * 4 + i), is(true));
+            }
+            assertThat(buffer.peek(), is(lap * 4));
+            for (int i = 0; i < 4; i++) {
+                assertThat(buffer.poll(), is(lap * 4 + i));
+            }
+        }
+        assertThat(buffer.poll(), is(nullValue()));
+    }
+
+    @Test
+    void offer_FullBuffer_ReturnsFalse() {
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(2);
+        buffer.offer(1);
+        buffer.offer(2);
+
+        assertThat(buffer.offer(3), is(false));
+        assertThat(buffer.size(), is(2));
+    }
+
+    @Test
+    void constructor_CapacityNotPowerOfTwo_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new MpmcRingBuffer<Integer>(6));
+    }
+
+    @Test
+    void offerAndPoll_ConcurrentProducersAndConsumers_DeliverEveryElementOnce() throws Exception {
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 100_000;
+        int total = producers * perProducer;
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(1024);
+        BitSet seen = new BitSet(total);
+        AtomicInteger consumed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int first = p * perProducer;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = first; i < first + perProducer; i++) {
+                        while (!buffer.offer(i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int c = 0; c < consumers; c++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    while (consumed.get() < total) {
+                        Integer element = buffer.poll();
+                        if (element == null) {
+                            Thread.onSpinWait();
+                            continue;
+                        }
+                        consumed.incrementAndGet();
+                        synchronized (seen) {
+                            assertThat(seen.get(element), is(false));
+                            seen.set(element);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(seen.cardinality(), is(total));
+        assertThat(buffer.poll(), is(nullValue()));
+    }
+}